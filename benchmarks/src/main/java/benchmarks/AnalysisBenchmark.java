@@ -0,0 +1,51 @@
+package benchmarks;
+
+import chess.engine.BatchAnalysis;
+import chess.engine.SearchLimits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch analysis of every position of a few opening lines at a fixed depth, on 1 or more workers. Positions per second
+ * is the batch size divided by the time per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalysisBenchmark
+{
+	private static final List<BatchAnalysis.Game> GAMES = List.of(
+			BatchAnalysis.Game.fromSan(List.of("e4", "e5", "Nf3", "Nc6", "Bc4", "Bc5", "c3", "Nf6", "d3", "d6")),
+			BatchAnalysis.Game.fromSan(List.of("d4", "d5", "c4", "e6", "Nc3", "Nf6", "Bg5", "Be7", "e3", "O-O")),
+			BatchAnalysis.Game.fromSan(List.of("e4", "c5", "Nf3", "d6", "d4", "cxd4", "Nxd4", "Nf6", "Nc3", "a6")),
+			BatchAnalysis.Game.fromSan(List.of("c4", "e5", "Nc3", "Nf6", "g3", "d5", "cxd5", "Nxd5", "Bg2", "Nb6")));
+
+	@Param({"1", "2", "4", "8"})
+	public int parallelism;
+
+	private BatchAnalysis analysis;
+
+	@Setup(Level.Invocation)
+	public void setup()
+	{
+		//New workers & tables each time, so no batch reuses an earlier one's results
+		analysis = new BatchAnalysis(parallelism, 16);
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown()
+	{
+		analysis.close();
+	}
+
+	@Benchmark
+	public long analyzeDepth5()
+	{
+		return analysis.analyze(GAMES, SearchLimits.depth(5), result -> {}).join().positions();
+	}
+}
@@ -0,0 +1,28 @@
+package benchmarks;
+
+import chess.ChessGame;
+
+/**
+ * Games the benchmarks run against, loaded from FEN.
+ */
+public final class BenchmarkPositions
+{
+	public static final String START = "start";
+	public static final String MIDDLEGAME = "middlegame";
+	public static final String CHECKMATE = "checkmate";
+
+	private BenchmarkPositions() {}
+
+	public static ChessGame game(String name)
+	{
+		return ChessGame.fromFen(switch(name)
+		{
+			case START -> "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+			//Giuoco Pianissimo after both sides castle
+			case MIDDLEGAME -> "r1bq1rk1/ppp2ppp/2np1n2/2b1p3/2B1P3/2PP1N2/PP3PPP/RNBQ1RK1 w - - 2 7";
+			//Fool's mate, white to move and checkmated
+			case CHECKMATE -> "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+			default -> throw new IllegalArgumentException("Unknown position: " + name);
+		});
+	}
+}
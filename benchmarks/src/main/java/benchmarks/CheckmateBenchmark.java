@@ -0,0 +1,39 @@
+package benchmarks;
+
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game end detection in a position that is actually checkmate, where every move of the losing side has to be
+ * tried before the answer is known.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckmateBenchmark
+{
+	private ChessGame game;
+
+	@Setup
+	public void setup()
+	{
+		game = BenchmarkPositions.game(BenchmarkPositions.CHECKMATE);
+	}
+
+	@Benchmark
+	public boolean isInCheckmate()
+	{
+		return game.isInCheckmate(game.getTeamTurn());
+	}
+
+	@Benchmark
+	public boolean isInStalemate()
+	{
+		return game.isInStalemate(game.getTeamTurn());
+	}
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the rules engine's hot paths. Run with {@code -prof gc} to see the allocation rate of each.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessGameBenchmark
+{
+	@Param({BenchmarkPositions.START, BenchmarkPositions.MIDDLEGAME})
+	public String position;
+
+	private ChessGame game;
+	private List<ChessPosition> pieces;
+	private ChessMove move;
+
+	@Setup
+	public void setup()
+	{
+		game = BenchmarkPositions.game(position);
+		pieces = new ArrayList<>();
+
+		for(ChessGame.ChessPieceAndPosition piece : game.getBoard().getTeamPieces(game.getTeamTurn()))
+		{
+			pieces.add(piece.position());
+		}
+
+		move = pieces.stream().flatMap(start -> game.validMoves(start).stream()).findFirst().orElseThrow();
+	}
+
+	/**
+	 * Valid moves of every piece of the side to move, as a client highlighting moves or a full move list would ask.
+	 */
+	@Benchmark
+	public void validMoves(Blackhole blackhole)
+	{
+		for(ChessPosition start : pieces)
+		{
+			blackhole.consume(game.validMoves(start));
+		}
+	}
+
+	/**
+	 * Includes copying the board so each call starts from the same position; subtract {@link #copyBoard()}.
+	 */
+	@Benchmark
+	public ChessGame makeMove() throws InvalidMoveException
+	{
+		ChessGame copy = new ChessGame(new ChessBoard(game.getBoard()));
+		copy.setTeamTurn(game.getTeamTurn());
+		copy.makeMove(move);
+		return copy;
+	}
+
+	@Benchmark
+	public boolean isInCheckmate()
+	{
+		return game.isInCheckmate(game.getTeamTurn());
+	}
+
+	@Benchmark
+	public boolean isInStalemate()
+	{
+		return game.isInStalemate(game.getTeamTurn());
+	}
+
+	@Benchmark
+	public ChessBoard copyBoard()
+	{
+		return new ChessBoard(game.getBoard());
+	}
+}
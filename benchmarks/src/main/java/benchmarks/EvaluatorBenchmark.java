@@ -0,0 +1,68 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Evaluator;
+import chess.MaterialEvaluator;
+import chess.PieceSquareEvaluator;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares evaluators: the cost of one evaluation on a fresh board, and a fixed depth search that evaluates at every
+ * leaf while making & unmaking moves.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluatorBenchmark
+{
+	@Param({"material", "pieceSquare"})
+	public String evaluator;
+
+	private ChessGame game;
+	private TranspositionTable table;
+	private Search search;
+
+	@Setup
+	public void setup()
+	{
+		game = BenchmarkPositions.game(BenchmarkPositions.MIDDLEGAME);
+		table = new TranspositionTable(16);
+		search = new Search(table, create());
+	}
+
+	@Setup(Level.Invocation)
+	public void clearTable()
+	{
+		table.clear();
+	}
+
+	@Benchmark
+	public int evaluateFresh()
+	{
+		return create().evaluate(game.getBoard(), game.getTeamTurn());
+	}
+
+	@Benchmark
+	public long searchDepth5()
+	{
+		return search.search(game, SearchLimits.depth(5)).nodes();
+	}
+
+	private Evaluator create()
+	{
+		return switch(evaluator)
+		{
+			case "material" -> new MaterialEvaluator();
+			case "pieceSquare" -> new PieceSquareEvaluator();
+			default -> throw new IllegalArgumentException(evaluator);
+		};
+	}
+}
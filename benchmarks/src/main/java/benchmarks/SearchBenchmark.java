@@ -0,0 +1,55 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed depth search of the middlegame position on 1 or more threads sharing a transposition table. The table is
+ * cleared before every search so each one does the full amount of work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark
+{
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	private ChessGame game;
+	private TranspositionTable table;
+	private ParallelSearch search;
+
+	@Setup
+	public void setup()
+	{
+		game = BenchmarkPositions.game(BenchmarkPositions.MIDDLEGAME);
+		table = new TranspositionTable(64);
+		search = new ParallelSearch(table, threads);
+	}
+
+	@Setup(Level.Invocation)
+	public void clearTable()
+	{
+		table.clear();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		search.close();
+	}
+
+	@Benchmark
+	public long searchDepth6()
+	{
+		return search.search(game, SearchLimits.depth(6)).result().nodes();
+	}
+}
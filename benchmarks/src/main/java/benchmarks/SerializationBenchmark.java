@@ -0,0 +1,48 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import dataaccess.ChessPieceAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson round trip of a game as the server stores it, deserializing pieces through {@link ChessPieceAdapter}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark
+{
+	@Param({BenchmarkPositions.START, BenchmarkPositions.MIDDLEGAME})
+	public String position;
+
+	private final Gson gson = new GsonBuilder().registerTypeAdapter(ChessPiece.class, new ChessPieceAdapter()).create();
+	private ChessGame game;
+	private String json;
+
+	@Setup
+	public void setup()
+	{
+		game = BenchmarkPositions.game(position);
+		json = gson.toJson(game);
+	}
+
+	@Benchmark
+	public String serialize()
+	{
+		return gson.toJson(game);
+	}
+
+	@Benchmark
+	public ChessGame deserialize()
+	{
+		return gson.fromJson(json, ChessGame.class);
+	}
+}
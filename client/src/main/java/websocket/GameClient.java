@@ -128,6 +128,7 @@ public class GameClient extends Endpoint implements ServerMessageObserver
 			case "redraw" -> redraw(params);
 			case "highlight" -> highlight(params);
 			case "move" -> makeMove(params);
+			case "hint" -> hint(params);
 			case "resign" -> resign(params);
 			case "leave" -> leave(params);
 			case "help" -> help();
@@ -243,6 +244,15 @@ public class GameClient extends Endpoint implements ServerMessageObserver
 		}
 	}
 
+	public String hint(String... params) throws ResponseException
+	{
+		assertCommandLength(0, "Hint command has no additional inputs.", params);
+		sendCommand(new UserGameCommand(HINT, authToken, gameData.gameID()));
+		repl.skipGamePrompt();
+
+		return "Asking the engine for a hint...";
+	}
+
 	public String resign(String... params) throws ResponseException
 	{
 		assertCommandLength(0, "Resign command has no additional inputs.", params);
@@ -286,6 +296,7 @@ public class GameClient extends Endpoint implements ServerMessageObserver
 			- highlight <position> - Highlights legal moves of piece at specified position.
 			- move <start position> <end position> - Moves piece from start to end position (validates move is valid).
 			- move <start> <end> <promote> - Optional variation on move command that allows for pawn promotion.
+			- hint - Asks the engine for a good move on your turn.
 			- resign
 			- leave
 			- help""";
@@ -296,7 +307,7 @@ public class GameClient extends Endpoint implements ServerMessageObserver
 		char col = input.charAt(0);
 		char row = input.charAt(1);
 
-		return new ChessPosition((int) row - '0', (int) parseColumnLetter(col));
+		return ChessPosition.of((int) row - '0', (int) parseColumnLetter(col));
 	}
 
 	private int parseColumnLetter(char letter)
@@ -364,7 +375,7 @@ public class GameClient extends Endpoint implements ServerMessageObserver
 			for(int i = 0; i < 8; i++)
 			{
 				int col = whitePerspective ? i + 1 : 8 - i;
-				ChessPosition current = new ChessPosition(row, col);
+				ChessPosition current = ChessPosition.of(row, col);
 
 				output.append(printSquare(current, isWhite, start, highlights));
 
@@ -372,7 +383,7 @@ public class GameClient extends Endpoint implements ServerMessageObserver
 				isWhite = !isWhite;
 
 				//Print piece
-				output.append(printPiece(board.getPiece(new ChessPosition(row, col))));
+				output.append(printPiece(board.getPiece(current)));
 			}
 			isWhite = !isWhite;
 			output.append(SET_BG_COLOR_BLACK + SET_TEXT_COLOR_BLUE + " " + row + " ");
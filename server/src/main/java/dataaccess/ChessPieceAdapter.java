@@ -18,6 +18,6 @@ public class ChessPieceAdapter implements JsonDeserializer<ChessPiece>
 		ChessPiece.PieceType pieceType = context.deserialize(pieceObject.get("type"), ChessPiece.PieceType.class);
 		boolean hasMoved = pieceObject.get("hasMoved").getAsBoolean();
 
-		return new ChessPiece(color, pieceType, hasMoved);
+		return ChessPiece.of(color, pieceType, hasMoved);
 	}
 }
@@ -9,6 +9,7 @@ public class DatabaseManager
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static int snapshotPlies;
 
     /*
      * Load the database information for the db.properties file.
@@ -54,10 +55,20 @@ public class DatabaseManager
 					PRIMARY KEY (gameID),
 					CONSTRAINT check_not_empty CHECK (gameName <> '')
 				) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin""";
+            //Moves are only ever appended; move is a packed chess.PackedMove, which fits in 15 bits
+            var createMovesTable = """
+				CREATE TABLE IF NOT EXISTS gameMoves(
+					gameID INT NOT NULL,
+					ply INT NOT NULL,
+					move SMALLINT NOT NULL,
+					playedAt TIMESTAMP(3) NOT NULL,
+					PRIMARY KEY (gameID, ply)
+				) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin""";
 
             createTable(conn, createAuthTable);
             createTable(conn, createUserTable);
             createTable(conn, createGameTable);
+            createTable(conn, createMovesTable);
         }
         catch (SQLException ex)
         {
@@ -131,5 +142,15 @@ public class DatabaseManager
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
         connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+        snapshotPlies = Integer.parseInt(props.getProperty("db.snapshot.plies", "20"));
+    }
+
+    /**
+     * How many plies apart games are stored whole, from the optional db.snapshot.plies (20 by default). Loading a
+     * game replays at most this many logged moves.
+     */
+    public static int snapshotPlies()
+    {
+        return snapshotPlies;
     }
 }
@@ -0,0 +1,49 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * The stored form of a game: its position as FEN, whether it's over, and the position keys a threefold repetition
+ * is counted from. That is under a tenth of the size of the whole game as JSON, and loads just as completely.
+ */
+public final class GameSnapshot
+{
+	private static final Gson GSON = new GsonBuilder().registerTypeAdapter(ChessPiece.class, new ChessPieceAdapter())
+			.create();
+
+	private record Snapshot(String fen, boolean gameOver, long[] history) {}
+
+	private GameSnapshot() {}
+
+	public static String write(ChessGame game)
+	{
+		return GSON.toJson(new Snapshot(game.toFen(), game.isGameOver(), game.getHistory()));
+	}
+
+	/**
+	 * Also reads games stored whole as JSON, as they were before snapshots.
+	 */
+	public static ChessGame read(String json)
+	{
+		JsonObject object = JsonParser.parseString(json).getAsJsonObject();
+
+		if(!object.has("fen"))
+		{
+			return GSON.fromJson(object, ChessGame.class);
+		}
+
+		Snapshot snapshot = GSON.fromJson(object, Snapshot.class);
+		ChessGame game = ChessGame.fromFen(snapshot.fen());
+		game.setHistory(snapshot.history());
+		if(snapshot.gameOver())
+		{
+			game.setGameOver();
+		}
+		return game;
+	}
+}
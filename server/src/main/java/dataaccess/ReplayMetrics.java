@@ -0,0 +1,41 @@
+package dataaccess;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the moves replayed on top of snapshots as games are loaded. With a snapshot every N plies, no load should
+ * replay more than N - 1 moves however long the game runs, so load times stay flat; a longest replay above that
+ * points at games stored before snapshots or snapshots that failed to write.
+ */
+public class ReplayMetrics
+{
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder movesReplayed = new LongAdder();
+	private final LongAdder loadNanos = new LongAdder();
+	private final AtomicInteger longestReplay = new AtomicInteger();
+
+	/**
+	 * @param averageReplay     Moves replayed per load
+	 * @param averageLoadMillis Time per load, reading the snapshot & moves included
+	 */
+	public record Summary(long loads, long movesReplayed, int longestReplay, double averageReplay,
+						  double averageLoadMillis) {}
+
+	public void record(int moves, long nanos)
+	{
+		loads.increment();
+		movesReplayed.add(moves);
+		loadNanos.add(nanos);
+		longestReplay.accumulateAndGet(moves, Math::max);
+	}
+
+	public Summary summary()
+	{
+		long count = loads.sum();
+		long moves = movesReplayed.sum();
+		double perLoad = Math.max(count, 1);
+
+		return new Summary(count, moves, longestReplay.get(), moves / perLoad, loadNanos.sum() / perLoad / 1_000_000);
+	}
+}
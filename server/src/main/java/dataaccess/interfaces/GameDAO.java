@@ -1,13 +1,22 @@
 package dataaccess.interfaces;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import dataaccess.DataAccessException;
+import dataaccess.ReplayMetrics;
 import model.GameData;
 import java.util.List;
 
 public interface GameDAO
 {
 	public void setGame(int gameID, ChessGame game) throws DataAccessException;
+	/**
+	 * Records one move of a game, usually without rewriting the stored game; getGame() replays it.
+	 *
+	 * @param game The game once the move is made. Its ply ({@link ChessGame#getPly()}) orders the moves, and it's
+	 *             stored whole every so often so that loads only replay the moves since.
+	 */
+	public void appendMove(int gameID, ChessGame game, ChessMove move) throws DataAccessException;
 	public GameData getGame(int gameID) throws DataAccessException;
 	public List<GameData> listGames();
 	public boolean duplicateGame(String gameName);
@@ -16,4 +25,8 @@ public interface GameDAO
 	public void leaveGame(int gameID, ChessGame.TeamColor color) throws DataAccessException;
 	public void clear();
 	public boolean isEmpty();
+	/**
+	 * @return How many logged moves loading games has replayed
+	 */
+	public ReplayMetrics getReplayMetrics();
 }
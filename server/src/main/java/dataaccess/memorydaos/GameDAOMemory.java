@@ -1,7 +1,9 @@
 package dataaccess.memorydaos;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import dataaccess.DataAccessException;
+import dataaccess.ReplayMetrics;
 import dataaccess.interfaces.GameDAO;
 import model.GameData;
 
@@ -12,6 +14,8 @@ import static java.lang.Math.abs;
 public class GameDAOMemory implements GameDAO
 {
 	private Map<Integer, GameData> idMap = new HashMap<>();
+	//Games are never replayed, so this stays empty
+	private final ReplayMetrics replayMetrics = new ReplayMetrics();
 
 	@Override
 	public void setGame(int gameID, ChessGame chessGame) throws DataAccessException
@@ -21,6 +25,13 @@ public class GameDAOMemory implements GameDAO
 				oldGameData.blackUsername(), oldGameData.gameName(), chessGame));
 	}
 
+	@Override
+	public void appendMove(int gameID, ChessGame game, ChessMove move) throws DataAccessException
+	{
+		//The stored game is the object the move was made on, so it's already up to date
+		getGame(gameID);
+	}
+
 	public GameData getGame(int gameID) throws DataAccessException
 	{
 		if(!idMap.containsKey(gameID))
@@ -108,4 +119,10 @@ public class GameDAOMemory implements GameDAO
 	{
 		return idMap.isEmpty();
 	}
+
+	@Override
+	public ReplayMetrics getReplayMetrics()
+	{
+		return replayMetrics;
+	}
 }
@@ -1,20 +1,26 @@
 package dataaccess.mysqldaos;
 
 import chess.ChessGame;
-import chess.ChessPiece;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import dataaccess.ChessPieceAdapter;
+import chess.ChessMove;
+import chess.InvalidMoveException;
 import dataaccess.DataAccessException;
 import dataaccess.DatabaseManager;
+import dataaccess.GameSnapshot;
+import dataaccess.ReplayMetrics;
 import dataaccess.interfaces.GameDAO;
 import model.GameData;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -22,20 +28,45 @@ import static java.lang.Math.abs;
 
 public class GameDAOMySQL extends DAOMySQL implements GameDAO
 {
+	//Games whose moves are read with one query when loading many, which keeps its parameters well under the server's
+	//limits
+	public static final int REPLAY_BATCH = 50;
+
 	private final String tableName = "gameData";
+	//One row per move: the game column of gameData holds a snapshot (see GameSnapshot) that getGame() brings up to
+	//date by replaying the moves made since
+	private final String movesTableName = "gameMoves";
+	private final int snapshotPlies;
+	private final ReplayMetrics replayMetrics = new ReplayMetrics();
+
+	/**
+	 * Snapshots games every db.snapshot.plies plies, see {@link DatabaseManager#snapshotPlies()}.
+	 */
+	public GameDAOMySQL()
+	{
+		this(DatabaseManager.snapshotPlies());
+	}
 
-	public void setGame(int gameID, ChessGame game) throws DataAccessException
+	/**
+	 * @param snapshotPlies How often appendMove() also stores the whole game, which bounds how many moves a load
+	 *                      replays. Fewer plies mean cheaper loads but more writes.
+	 */
+	public GameDAOMySQL(int snapshotPlies)
 	{
-		String sql = "UPDATE gameData SET game = ? WHERE gameID = ?";
+		if(snapshotPlies < 1)
+		{
+			throw new IllegalArgumentException("Games need a snapshot at least every ply");
+		}
+		this.snapshotPlies = snapshotPlies;
+	}
 
+	public void setGame(int gameID, ChessGame game) throws DataAccessException
+	{
 		try(Connection conn = DatabaseManager.getConnection())
 		{
-			try(var statement = conn.prepareStatement(sql))
+			try
 			{
-				statement.setString(1, new Gson().toJson(game));
-				statement.setInt(2, gameID);
-
-				statement.executeUpdate();
+				writeSnapshot(conn, gameID, game);
 			}
 			catch(SQLException e)
 			{
@@ -56,6 +87,66 @@ public class GameDAOMySQL extends DAOMySQL implements GameDAO
 		}
 	}
 
+	private void writeSnapshot(Connection conn, int gameID, ChessGame game) throws SQLException
+	{
+		String sql = "UPDATE " + tableName + " SET game = ? WHERE gameID = ?";
+
+		try(var statement = conn.prepareStatement(sql))
+		{
+			statement.setString(1, GameSnapshot.write(game));
+			statement.setInt(2, gameID);
+
+			statement.executeUpdate();
+		}
+	}
+
+	@Override
+	public void appendMove(int gameID, ChessGame game, ChessMove move) throws DataAccessException
+	{
+		String sql = "INSERT INTO " + movesTableName + " (gameID, ply, move, playedAt) VALUES(?, ?, ?, ?)";
+		int ply = game.getPly();
+
+		try(Connection conn = DatabaseManager.getConnection())
+		{
+			//The move and its snapshot are stored together or not at all, so a crash between them can't leave a
+			//snapshot that doesn't match the log
+			conn.setAutoCommit(false);
+
+			try
+			{
+				try(var statement = conn.prepareStatement(sql))
+				{
+					statement.setInt(1, gameID);
+					statement.setInt(2, ply);
+					statement.setInt(3, move.pack());
+					statement.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+
+					statement.executeUpdate();
+				}
+				catch(SQLIntegrityConstraintViolationException e)
+				{
+					//The key is (gameID, ply), so two moves made from the same position can't both be stored
+					throw new DataAccessException("Move " + ply + " of game " + gameID + " has already been made.");
+				}
+
+				if(ply % snapshotPlies == 0)
+				{
+					writeSnapshot(conn, gameID, game);
+				}
+				conn.commit();
+			}
+			catch(SQLException | DataAccessException | RuntimeException e)
+			{
+				conn.rollback();
+				throw e;
+			}
+		}
+		catch(SQLException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
 	@Override
 	public GameData getGame(int gameID) throws DataAccessException
 	{
@@ -71,10 +162,7 @@ public class GameDAOMySQL extends DAOMySQL implements GameDAO
 				{
 					if(rs.next())
 					{
-						String json = rs.getString("game");
-						Gson gson = new GsonBuilder().registerTypeAdapter(ChessPiece.class,
-								new ChessPieceAdapter()).create();
-						ChessGame game = gson.fromJson(json, ChessGame.class);
+						ChessGame game = loadGames(conn, Map.of(gameID, rs.getString("game"))).get(gameID);
 
 						return new GameData(
 								rs.getInt("gameID"),
@@ -105,28 +193,35 @@ public class GameDAOMySQL extends DAOMySQL implements GameDAO
 
 		try(Connection conn = DatabaseManager.getConnection())
 		{
+			//The games are read first and their moves replayed afterwards, all with one query
+			ArrayList<GameData> rows = new ArrayList<>();
+			Map<Integer, String> snapshots = new HashMap<>();
+
 			try(var statement = conn.prepareStatement(sql))
 			{
 				ResultSet rs = statement.executeQuery();
 
 				while(rs.next())
 				{
-					String json = rs.getString("game");
-					Gson gson = new GsonBuilder().registerTypeAdapter(ChessPiece.class,
-							new ChessPieceAdapter()).create();
-					ChessGame game = gson.fromJson(json, ChessGame.class);
-
 					GameData gameData = new GameData
 					(
 						rs.getInt("gameID"),
 						rs.getString("whiteUsername"),
 						rs.getString("blackUsername"),
 						rs.getString("gameName"),
-						game
+						null
 					);
-					games.add(gameData);
+					rows.add(gameData);
+					snapshots.put(gameData.gameID(), rs.getString("game"));
 				}
 			}
+
+			Map<Integer, ChessGame> loaded = loadGames(conn, snapshots);
+			for(GameData row : rows)
+			{
+				games.add(new GameData(row.gameID(), row.whiteUsername(), row.blackUsername(), row.gameName(),
+						loaded.get(row.gameID())));
+			}
 		}
 		catch(SQLException | DataAccessException e)
 		{
@@ -136,6 +231,79 @@ public class GameDAOMySQL extends DAOMySQL implements GameDAO
 		return games;
 	}
 
+	/**
+	 * Reads games' snapshots and brings them up to date by making the moves logged after each was stored. The moves
+	 * are read with one query per {@link #REPLAY_BATCH} games, and how many each game replayed is recorded.
+	 *
+	 * @param snapshots Snapshot of each game by ID
+	 * @return Each game by ID
+	 */
+	private Map<Integer, ChessGame> loadGames(Connection conn, Map<Integer, String> snapshots)
+			throws SQLException, DataAccessException
+	{
+		long start = System.nanoTime();
+		Map<Integer, ChessGame> games = new LinkedHashMap<>();
+		Map<Integer, Integer> replayed = new HashMap<>();
+
+		snapshots.forEach((gameID, snapshot) ->
+		{
+			games.put(gameID, GameSnapshot.read(snapshot));
+			replayed.put(gameID, 0);
+		});
+
+		List<Map.Entry<Integer, ChessGame>> entries = new ArrayList<>(games.entrySet());
+		for(int from = 0; from < entries.size(); from += REPLAY_BATCH)
+		{
+			List<Map.Entry<Integer, ChessGame>> batch = entries.subList(from,
+					Math.min(from + REPLAY_BATCH, entries.size()));
+
+			//Each game has its own snapshot ply, and the (gameID, ply) key serves each pair as a range
+			String sql = "SELECT gameID, move FROM " + movesTableName + " WHERE "
+					+ String.join(" OR ", Collections.nCopies(batch.size(), "(gameID = ? AND ply > ?)"))
+					+ " ORDER BY gameID, ply";
+
+			try(var statement = conn.prepareStatement(sql))
+			{
+				int parameter = 1;
+				for(Map.Entry<Integer, ChessGame> game : batch)
+				{
+					statement.setInt(parameter++, game.getKey());
+					statement.setInt(parameter++, game.getValue().getPly());
+				}
+
+				try(var rs = statement.executeQuery())
+				{
+					while(rs.next())
+					{
+						int gameID = rs.getInt("gameID");
+						replay(gameID, games.get(gameID), ChessMove.fromPacked(rs.getInt("move")));
+						replayed.merge(gameID, 1, Integer::sum);
+					}
+				}
+			}
+		}
+
+		//The games load together, so each is charged an equal share of the time
+		long nanos = (System.nanoTime() - start) / Math.max(games.size(), 1);
+		for(int moves : replayed.values())
+		{
+			replayMetrics.record(moves, nanos);
+		}
+		return games;
+	}
+
+	private static void replay(int gameID, ChessGame game, ChessMove move) throws DataAccessException
+	{
+		try
+		{
+			game.makeMove(move);
+		}
+		catch(InvalidMoveException e)
+		{
+			throw new DataAccessException("The moves of game " + gameID + " can't be replayed: " + e.getMessage());
+		}
+	}
+
 	@Override
 	public boolean duplicateGame(String gameName)
 	{
@@ -176,9 +344,7 @@ public class GameDAOMySQL extends DAOMySQL implements GameDAO
 			{
 				int gameID = abs(UUID.randomUUID().hashCode());
 
-				ChessGame game = new ChessGame();
-				Gson gson = new Gson();
-				String jsonGame = gson.toJson(game);
+				String jsonGame = GameSnapshot.write(new ChessGame());
 
 				statement.setInt(1, gameID);
 				statement.setString(2, null);
@@ -277,10 +443,17 @@ public class GameDAOMySQL extends DAOMySQL implements GameDAO
 		}
 	}
 
+	@Override
+	public ReplayMetrics getReplayMetrics()
+	{
+		return replayMetrics;
+	}
+
 	@Override
 	public void clear()
 	{
 		super.clear(tableName);
+		super.clear(movesTableName);
 	}
 
 	@Override
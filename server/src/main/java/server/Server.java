@@ -1,10 +1,12 @@
 package server;
 
+import chess.engine.EngineConfig;
 import com.google.gson.Gson;
 import dataaccess.DataAccessException;
 import model.GameData;
 import model.Records;
 import model.UserData;
+import server.engine.EnginePool;
 import server.websocket.WebsocketHandler;
 import spark.*;
 import service.*;
@@ -18,11 +20,12 @@ public class Server
     private final DAOManagement daoManager = new DAOManagement();
     private final UserManagement userManager = new UserManagement(daoManager);
     private final GameManagement gameManager = new GameManagement(daoManager);
+    private final EnginePool enginePool = new EnginePool(EngineConfig.load());
     private final WebsocketHandler websocketHandler;
 
     public Server()
     {
-        websocketHandler = new WebsocketHandler(daoManager);
+        websocketHandler = new WebsocketHandler(daoManager, enginePool);
     }
 
     public int run(int desiredPort)
@@ -41,6 +44,7 @@ public class Server
         Spark.post("/game", this::newGame);
         Spark.put("/game", this::joinGame);
         Spark.get("/game", this::listGames);
+        Spark.get("/metrics", this::metrics);
 
         Spark.exception(Exception.class, (ex, req, res) ->
         {
@@ -60,6 +64,7 @@ public class Server
     {
         Spark.stop();
         Spark.awaitStop();
+        enginePool.close();
     }
 
     private Object clear(Request request, Response response)
@@ -68,6 +73,13 @@ public class Server
         return http200(response);
     }
 
+    private Object metrics(Request request, Response response)
+    {
+        response.status(200);
+        response.type("application/json");
+        return new Gson().toJson(Map.of("replay", daoManager.getGames().getReplayMetrics().summary()));
+    }
+
     private Object addUser(Request request, Response response)
     {
         UserData registerRequest = new Gson().fromJson(request.body(), UserData.class);
@@ -0,0 +1,12 @@
+package server.engine;
+
+/**
+ * Indicates every engine worker is busy and the queue of waiting searches is full
+ */
+public class EngineBusyException extends Exception
+{
+	public EngineBusyException(String message)
+	{
+		super(message);
+	}
+}
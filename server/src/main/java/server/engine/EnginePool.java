@@ -0,0 +1,292 @@
+package server.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Tablebase;
+import chess.engine.EngineConfig;
+import chess.engine.OpeningBook;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs engine searches for the server on its own threads, so a search never holds up a websocket thread.
+ * <p>
+ * A fixed number of workers caps how many searches run at once, each with its own {@link ParallelSearch} of
+ * engine.threads threads and transposition table. Requests beyond that wait in a bounded queue; when the queue is full
+ * a request is turned away with an {@link EngineBusyException} rather than waiting indefinitely. Every request has a
+ * time budget counted from when it was submitted, so time spent in the queue comes out of its search time, and a
+ * request whose budget ran out while queued is dropped. Requests can be cancelled by game (when a move makes them
+ * stale) or by owner (when the player leaves or disconnects), whether they are still queued or already searching.
+ * <p>
+ * Positions found in the configured opening book or endgame tablebase are answered straight away on the caller's
+ * thread, without a search; the tablebase's moves are perfect play.
+ */
+public class EnginePool implements AutoCloseable
+{
+	//A search with less time left than this isn't worth starting
+	private static final long MIN_SEARCH_MILLIS = 20;
+
+	private final ThreadPoolExecutor executor;
+	private final ThreadLocal<ParallelSearch> searches;
+	//Every worker's search, so closing the pool stops their helper threads too
+	private final Queue<ParallelSearch> allSearches = new ConcurrentLinkedQueue<>();
+	private final Set<Request> requests = ConcurrentHashMap.newKeySet();
+	private final long moveMillis;
+	//Null without a book
+	private final OpeningBook book;
+	//Null without tablebases
+	private final Tablebase tablebase;
+
+	public EnginePool(EngineConfig config)
+	{
+		AtomicInteger count = new AtomicInteger();
+		BlockingQueue<Runnable> queue = config.queueCapacity() == 0 ?
+				new SynchronousQueue<>() : new ArrayBlockingQueue<>(config.queueCapacity());
+
+		this.executor = new ThreadPoolExecutor(config.workers(), config.workers(), 0, TimeUnit.MILLISECONDS, queue,
+				runnable -> {
+					Thread thread = new Thread(runnable, "engine-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		this.searches = ThreadLocal.withInitial(() -> {
+			ParallelSearch search = new ParallelSearch(config);
+			allSearches.add(search);
+			return search;
+		});
+		this.moveMillis = config.moveMillis();
+
+		try
+		{
+			this.book = config.book() == null ? null : OpeningBook.open(config.book());
+		}
+		catch(IOException ex)
+		{
+			throw new RuntimeException("unable to open opening book " + config.book(), ex);
+		}
+
+		try
+		{
+			this.tablebase = config.tablebases() == null ? null
+					: Tablebase.open(config.tablebases(), config.tablebaseCacheBlocks());
+		}
+		catch(IOException ex)
+		{
+			throw new RuntimeException("unable to open tablebases in " + config.tablebases(), ex);
+		}
+	}
+
+	/**
+	 * Receives the outcome of a request on an engine thread. Cancelled requests hear nothing.
+	 */
+	public interface Listener
+	{
+		void found(SearchResult result);
+
+		/**
+		 * The request's time budget ran out before a worker was free to search, or before the search finished its
+		 * first iteration.
+		 */
+		void expired();
+	}
+
+	/**
+	 * Queues a search of the game's current position with the configured time budget, unless the opening book or
+	 * tablebase has a move for it.
+	 *
+	 * @param owner  Username of the player the search is for, see {@link #cancelOwner(String)}
+	 * @param gameID Game the position belongs to, see {@link #cancelGame(int)}
+	 * @param game   Copied before this returns, so the caller may go on changing it
+	 * @throws EngineBusyException if every worker is busy and the queue is full
+	 */
+	public void submit(String owner, int gameID, ChessGame game, Listener listener) throws EngineBusyException
+	{
+		ChessMove known = book == null ? null : book.bestMove(game);
+		if(known == null && tablebase != null)
+		{
+			known = tablebase.bestMove(game);
+		}
+		if(known != null)
+		{
+			listener.found(new SearchResult(known.pack(), 0, 0, 0, 0));
+			return;
+		}
+
+		Request request = new Request(owner, gameID, ChessGame.fromFen(game.toFen()), listener,
+				System.currentTimeMillis() + moveMillis);
+		requests.add(request);
+
+		try
+		{
+			executor.execute(request);
+		}
+		catch(RejectedExecutionException e)
+		{
+			requests.remove(request);
+			throw new EngineBusyException("The engine is busy. Please try again in a moment.");
+		}
+	}
+
+	/**
+	 * Looks the game's position up in the tablebase, e.g. to end a game whose result is already decided.
+	 *
+	 * @return The outcome for the side to move with perfect play, or null without a tablebase or if the position
+	 * isn't covered
+	 */
+	public Tablebase.Result probeTablebase(ChessGame game)
+	{
+		return tablebase == null ? null : tablebase.probe(game);
+	}
+
+	/**
+	 * Cancels every request for the game, e.g. because a move has made them stale.
+	 */
+	public void cancelGame(int gameID)
+	{
+		for(Request request : requests)
+		{
+			if(request.gameID == gameID)
+			{
+				cancel(request);
+			}
+		}
+	}
+
+	/**
+	 * Cancels every request made for the player, e.g. because they left the game or disconnected.
+	 */
+	public void cancelOwner(String owner)
+	{
+		for(Request request : requests)
+		{
+			if(request.owner.equals(owner))
+			{
+				cancel(request);
+			}
+		}
+	}
+
+	/**
+	 * @return Number of requests waiting for a worker
+	 */
+	public int queued()
+	{
+		return executor.getQueue().size();
+	}
+
+	@Override
+	public void close()
+	{
+		for(Request request : requests)
+		{
+			cancel(request);
+		}
+		executor.shutdownNow();
+		for(ParallelSearch search : allSearches)
+		{
+			search.close();
+		}
+	}
+
+	private void cancel(Request request)
+	{
+		requests.remove(request);
+		//Frees the queue slot if no worker has taken the request yet
+		executor.remove(request);
+
+		//A worker reuses its search for the next request once this one lets go of it, which it does under the same
+		//lock, so the stop can only reach this request's search
+		synchronized(request)
+		{
+			request.cancelled = true;
+			if(request.search != null)
+			{
+				request.search.stop();
+			}
+		}
+	}
+
+	private final class Request implements Runnable
+	{
+		private final String owner;
+		private final int gameID;
+		private final ChessGame game;
+		private final Listener listener;
+		private final long deadline;
+		//Both guarded by this request's lock
+		private boolean cancelled;
+		//The worker's search while it runs this request, so cancelling can stop it
+		private ParallelSearch search;
+
+		private Request(String owner, int gameID, ChessGame game, Listener listener, long deadline)
+		{
+			this.owner = owner;
+			this.gameID = gameID;
+			this.game = game;
+			this.listener = listener;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public void run()
+		{
+			ParallelSearch worker = searches.get();
+
+			try
+			{
+				//A cancel either comes before this and is seen here, or comes after and stops the search
+				synchronized(this)
+				{
+					if(cancelled)
+					{
+						return;
+					}
+					worker.reset();
+					search = worker;
+				}
+
+				long remaining = deadline - System.currentTimeMillis();
+				if(remaining < MIN_SEARCH_MILLIS)
+				{
+					listener.expired();
+					return;
+				}
+
+				SearchResult result = worker.search(game, SearchLimits.millis(remaining)).result();
+
+				synchronized(this)
+				{
+					//A search stopped by a cancel still returns a result, which is stale by now
+					if(cancelled)
+					{
+						return;
+					}
+				}
+				//Stopped before its first iteration finished, the move wasn't searched at all
+				if(result.depth() == 0 && result.bestMove() != null)
+				{
+					listener.expired();
+				}
+				else
+				{
+					listener.found(result);
+				}
+			}
+			finally
+			{
+				synchronized(this)
+				{
+					search = null;
+				}
+				requests.remove(this);
+			}
+		}
+	}
+}
@@ -22,6 +22,22 @@ public class ConnectionManager
 		connections.remove(username);
 	}
 
+	/**
+	 * @return The username the session belonged to, or null if it wasn't connected to a game
+	 */
+	public String remove(Session session)
+	{
+		for(var conn : connections.values())
+		{
+			if(conn.session == session)
+			{
+				connections.remove(conn.username);
+				return conn.username;
+			}
+		}
+		return null;
+	}
+
 	public void broadcast(String excludeUsername, int gameID, ServerMessage message) throws IOException
 	{
 		var removeList = new ArrayList<WebsocketConnection>();
@@ -1,16 +1,22 @@
 package server.websocket;
 
+import chess.ChessBoard;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPiece;
 import chess.InvalidMoveException;
+import chess.Tablebase;
+import chess.engine.SearchResult;
 import com.google.gson.Gson;
 import dataaccess.DataAccessException;
 import model.GameData;
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import server.engine.EngineBusyException;
+import server.engine.EnginePool;
 import service.DAOManagement;
 import websocket.commands.*;
 import websocket.messages.ServerErrorMessage;
@@ -30,10 +36,12 @@ public class WebsocketHandler
 
     private final ConnectionManager connections = new ConnectionManager();
     private final DAOManagement daoManager;
+    private final EnginePool enginePool;
 
-    public WebsocketHandler(DAOManagement daoManager)
+    public WebsocketHandler(DAOManagement daoManager, EnginePool enginePool)
     {
         this.daoManager = daoManager;
+        this.enginePool = enginePool;
     }
 
     @OnWebSocketMessage
@@ -55,6 +63,7 @@ public class WebsocketHandler
                 }
                 case LEAVE -> leaveGame(session, username, command);
                 case RESIGN -> resign(session, username, command);
+                case HINT -> hint(session, username, command);
             }
         }
         catch(UnauthorizedException e)
@@ -67,6 +76,18 @@ public class WebsocketHandler
         }
     }
 
+    @OnWebSocketClose
+    public void onClose(Session session, int statusCode, String reason)
+    {
+        String username = connections.remove(session);
+
+        //Nobody is left to receive their hints
+        if(username != null)
+        {
+            enginePool.cancelOwner(username);
+        }
+    }
+
     private String getUsername(String authToken) throws UnauthorizedException, DataAccessException
     {
         return daoManager.getAuthorizations().authorizeToken(authToken);
@@ -116,7 +137,9 @@ public class WebsocketHandler
             }
 
             game.makeMove(move);
-            daoManager.getGames().setGame(gameID, game);
+            daoManager.getGames().appendMove(gameID, game, move);
+            //Hints for the previous position are stale now
+            enginePool.cancelGame(gameID);
 
             LoadGame load = new LoadGame(LOAD_GAME, gameData);
             connections.broadcast(null, gameID, load);
@@ -125,26 +148,47 @@ public class WebsocketHandler
                     move.getStartPosition(), move.getEndPosition());
             connections.broadcast(username, gameID, new Notification(NOTIFICATION, msg));
 
-            ChessGame.TeamColor endangeredTeam = game.otherTeam(piece.getTeamColor());
+            //The status describes the team to move next, i.e. the one this move may have endangered
+            ChessGame.TeamColor endangeredTeam = game.getTeamTurn();
 
-            if(game.isInCheckmate(endangeredTeam))
+            switch(game.getStatus())
             {
-                game.setGameOver();
-                daoManager.getGames().setGame(gameID, game);
-                String message = String.format("%s is in checkmate. %s wins!", getTeamUsername(endangeredTeam, gameData), username);
-                connections.broadcast(null, gameID, new Notification(NOTIFICATION, message));
-            }
-            else if(game.isInCheck(endangeredTeam))
-            {
-                String message = String.format("%s is in check.", getTeamUsername(endangeredTeam, gameData));
-                connections.broadcast(null, gameID, new Notification(NOTIFICATION, message));
+                case CHECKMATE ->
+                {
+                    game.setGameOver();
+                    daoManager.getGames().setGame(gameID, game);
+                    String message = String.format("%s is in checkmate. %s wins!", getTeamUsername(endangeredTeam, gameData), username);
+                    connections.broadcast(null, gameID, new Notification(NOTIFICATION, message));
+                }
+                case CHECK ->
+                {
+                    String message = String.format("%s is in check.", getTeamUsername(endangeredTeam, gameData));
+                    connections.broadcast(null, gameID, new Notification(NOTIFICATION, message));
+                }
+                case STALEMATE ->
+                {
+                    game.setGameOver();
+                    daoManager.getGames().setGame(gameID, game);
+                    String message = "The game is at a stalemate.";
+                    connections.broadcast(null, gameID, new Notification(NOTIFICATION, message));
+                }
+                case THREEFOLD_REPETITION, FIFTY_MOVE_RULE, INSUFFICIENT_MATERIAL ->
+                {
+                    game.setGameOver();
+                    daoManager.getGames().setGame(gameID, game);
+                    String message = switch(game.getStatus())
+                    {
+                        case THREEFOLD_REPETITION -> "The game is drawn by threefold repetition.";
+                        case FIFTY_MOVE_RULE -> "The game is drawn by the fifty-move rule.";
+                        default -> "The game is drawn: neither side has enough material to checkmate.";
+                    };
+                    connections.broadcast(null, gameID, new Notification(NOTIFICATION, message));
+                }
             }
-            else if(game.isInStalemate(endangeredTeam))
+
+            if(!game.isGameOver())
             {
-                game.setGameOver();
-                daoManager.getGames().setGame(gameID, game);
-                String message = "The game is at a stalemate.";
-                connections.broadcast(null, gameID, new Notification(NOTIFICATION, message));
+                adjudicate(gameID, game);
             }
         }
         catch(InvalidMoveException | DataAccessException e)
@@ -153,6 +197,23 @@ public class WebsocketHandler
         }
     }
 
+    /**
+     * Ends the game as a draw when the tablebase shows neither side can force checkmate any more, rather than
+     * leaving the players to shuffle pieces in a dead position. Won endings are still played out.
+     */
+    private void adjudicate(int gameID, ChessGame game) throws DataAccessException, IOException
+    {
+        Tablebase.Result result = enginePool.probeTablebase(game);
+
+        if(result != null && result.outcome() == Tablebase.Outcome.DRAW)
+        {
+            game.setGameOver();
+            daoManager.getGames().setGame(gameID, game);
+            String message = "The game is drawn: neither side can force checkmate.";
+            connections.broadcast(null, gameID, new Notification(NOTIFICATION, message));
+        }
+    }
+
     private void leaveGame(Session session, String username, UserGameCommand command) throws IOException
 	{
         int gameID = command.getGameID();
@@ -175,6 +236,7 @@ public class WebsocketHandler
 
             connections.broadcast(username, gameID, new Notification(NOTIFICATION, String.format("%s has left the game.", username)));
             connections.remove(username);
+            enginePool.cancelOwner(username);
         }
         catch(DataAccessException e)
         {
@@ -202,6 +264,7 @@ public class WebsocketHandler
 
             game.setGameOver();
             daoManager.getGames().setGame(gameID, game);
+            enginePool.cancelGame(gameID);
 
             connections.broadcast(null, gameID, new LoadGame(LOAD_GAME, daoManager.getGames().getGame(gameID)));
             connections.broadcast(null, gameID, new Notification(NOTIFICATION, String.format("%s has resigned.", username)));
@@ -212,6 +275,52 @@ public class WebsocketHandler
         }
     }
 
+    /**
+     * Asks the engine pool for the best move in the player's position. The hint arrives later as a notification, or
+     * as an error if the engine is too busy to answer in time.
+     */
+    private void hint(Session session, String username, UserGameCommand command) throws IOException
+    {
+        int gameID = command.getGameID();
+
+        try
+        {
+            GameData gameData = daoManager.getGames().getGame(gameID);
+            ChessGame game = gameData.game();
+
+            if(game.isGameOver() || !username.equals(getTeamUsername(game.getTeamTurn(), gameData)))
+            {
+                throw new InvalidMoveException("You may only ask for a hint on your own turn while the game is in progress.");
+            }
+
+            //The game may have moved on by the time the hint arrives
+            ChessBoard board = new ChessBoard(game.getBoard());
+
+            enginePool.submit(username, gameID, game, new EnginePool.Listener()
+            {
+                @Override
+                public void found(SearchResult result)
+                {
+                    ChessMove hint = result.bestMove();
+                    String msg = hint == null ? "There are no legal moves." : String.format("Hint: move the %s from %s to %s.",
+                            board.getPiece(hint.getStartPosition()).getPieceType(),
+                            hint.getStartPosition(), hint.getEndPosition());
+                    sendIfOpen(session, new Notification(NOTIFICATION, msg));
+                }
+
+                @Override
+                public void expired()
+                {
+                    sendIfOpen(session, new ServerErrorMessage(ERROR, "The engine was too busy to find a hint in time."));
+                }
+            });
+        }
+        catch(InvalidMoveException | DataAccessException | EngineBusyException e)
+        {
+            sendMessage(session.getRemote(), new ServerErrorMessage(ERROR, e.getMessage()));
+        }
+    }
+
     private ChessGame.TeamColor getUsernameTeam(String username, GameData gameData)
     {
         if(username.equals(gameData.whiteUsername()))
@@ -241,4 +350,22 @@ public class WebsocketHandler
     {
         remote.sendString(new Gson().toJson(message));
     }
+
+    /**
+     * For replies from engine threads, which may arrive after the player has gone.
+     */
+    private void sendIfOpen(Session session, ServerMessage message)
+    {
+        try
+        {
+            if(session.isOpen())
+            {
+                sendMessage(session.getRemote(), message);
+            }
+        }
+        catch(IOException ignored)
+        {
+            //The connection closed while sending; there is nobody to tell
+        }
+    }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import com.google.gson.Gson;
 import dataaccess.interfaces.GameDAO;
 import dataaccess.mysqldaos.GameDAOMySQL;
@@ -59,6 +62,10 @@ public class GameDAOTests
 		{
 			statement.executeUpdate();
 		}
+		try(PreparedStatement statement = conn.prepareStatement("TRUNCATE TABLE gameMoves"))
+		{
+			statement.executeUpdate();
+		}
 
 		conn.close();
 		conn = null;
@@ -98,6 +105,62 @@ public class GameDAOTests
 		Assertions.assertThrows(DataAccessException.class, () -> dao.getGame(4));
 	}
 
+	@Test
+	public void testAppendMove() throws DataAccessException, InvalidMoveException, SQLException
+	{
+		ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+		ChessMove e5 = new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null);
+		ChessGame expected = new ChessGame();
+		expected.makeMove(e4);
+		dao.appendMove(1, expected, e4);
+		expected.makeMove(e5);
+		dao.appendMove(1, expected, e5);
+
+		Assertions.assertEquals(expected, dao.getGame(1).game());
+		Assertions.assertEquals(new ChessGame(), dao.getGame(2).game());
+		Assertions.assertEquals(2, AuthDAOTests.getItems("gameMoves", "ply", conn).size());
+
+		//A stored game already includes the moves before it, so only later moves are replayed
+		dao.setGame(1, expected);
+		Assertions.assertEquals(expected, dao.getGame(1).game());
+	}
+
+	@Test
+	public void testAppendMoveFail()
+	{
+		ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+		ChessGame game = new ChessGame();
+		Assertions.assertDoesNotThrow(() -> game.makeMove(e4));
+
+		Assertions.assertDoesNotThrow(() -> dao.appendMove(1, game, e4));
+		Assertions.assertThrows(DataAccessException.class, () -> dao.appendMove(1, game, e4));
+	}
+
+	@Test
+	public void testSnapshots() throws DataAccessException, InvalidMoveException, SQLException
+	{
+		GameDAO snapshotting = new GameDAOMySQL(2);
+		ChessMove[] moves = {new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null),
+				new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null),
+				new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null)};
+		ChessGame expected = new ChessGame();
+
+		for(ChessMove move : moves)
+		{
+			expected.makeMove(move);
+			snapshotting.appendMove(1, expected, move);
+		}
+
+		Assertions.assertEquals(expected, snapshotting.getGame(1).game());
+		//The snapshot after the second move leaves one move to replay
+		ReplayMetrics.Summary summary = snapshotting.getReplayMetrics().summary();
+		Assertions.assertEquals(1, summary.loads());
+		Assertions.assertEquals(1, summary.longestReplay());
+		Assertions.assertEquals(3, AuthDAOTests.getItems("gameMoves", "ply", conn).size());
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new GameDAOMySQL(0));
+	}
+
 	@Test
 	public void testJoinGame() throws DataAccessException
 	{
@@ -130,6 +193,50 @@ public class GameDAOTests
 		// there are no parameter or conditions that will change based on method implementation.
 	}
 
+	@Test
+	public void testListGamesReplaysMoves() throws DataAccessException, InvalidMoveException
+	{
+		ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+		ChessMove d5 = new ChessMove(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null);
+		ChessGame first = new ChessGame();
+		ChessGame third = new ChessGame();
+
+		first.makeMove(e4);
+		dao.appendMove(1, first, e4);
+		first.makeMove(d5);
+		dao.appendMove(1, first, d5);
+		third.makeMove(e4);
+		dao.appendMove(3, third, e4);
+
+		List<GameData> games = dao.listGames();
+		Assertions.assertEquals(first, games.get(0).game());
+		Assertions.assertEquals(new ChessGame(), games.get(1).game());
+		Assertions.assertEquals(third, games.get(2).game());
+	}
+
+	@Test
+	public void testListGamesInBatches() throws DataAccessException, InvalidMoveException
+	{
+		ChessMove e4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+		ChessGame moved = new ChessGame();
+		moved.makeMove(e4);
+
+		//More games than one query replays, each with a move to replay
+		for(int i = 0; i < GameDAOMySQL.REPLAY_BATCH; i++)
+		{
+			dao.appendMove(dao.newGame("Batch " + i), moved, e4);
+		}
+		dao.appendMove(1, moved, e4);
+
+		List<GameData> games = dao.listGames();
+		Assertions.assertEquals(GameDAOMySQL.REPLAY_BATCH + 3, games.size());
+		for(GameData game : games)
+		{
+			ChessGame expected = game.gameID() == 2 || game.gameID() == 3 ? new ChessGame() : moved;
+			Assertions.assertEquals(expected, game.game(), game.gameName());
+		}
+	}
+
 	@Test
 	public void testDuplicateGame()
 	{
@@ -0,0 +1,261 @@
+package server.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Tablebase;
+import chess.TablebaseGenerator;
+import chess.engine.BookBuilder;
+import chess.engine.EngineConfig;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnginePoolTests
+{
+	@Test
+	@DisplayName("Search Result Delivered")
+	public void found() throws Exception
+	{
+		AtomicReference<SearchResult> result = new AtomicReference<>();
+		CountDownLatch done = new CountDownLatch(1);
+
+		try(EnginePool pool = new EnginePool(new EngineConfig(1, 1, 1, 4, 200, null, null, 64)))
+		{
+			pool.submit("player", 1, new ChessGame(), new Listener(done)
+			{
+				@Override
+				public void found(SearchResult found)
+				{
+					result.set(found);
+					super.found(found);
+				}
+			});
+
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+			assertNotNull(result.get().bestMove());
+		}
+	}
+
+	@Test
+	@DisplayName("Search On Several Threads")
+	public void foundOnThreads() throws Exception
+	{
+		try(EnginePool pool = new EnginePool(new EngineConfig(1, 3, 1, 4, 200, null, null, 64)))
+		{
+			//The second search reuses the worker's threads
+			for(int gameID = 1; gameID <= 2; gameID++)
+			{
+				AtomicReference<SearchResult> result = new AtomicReference<>();
+				CountDownLatch done = new CountDownLatch(1);
+
+				pool.submit("player", gameID, new ChessGame(), new Listener(done)
+				{
+					@Override
+					public void found(SearchResult found)
+					{
+						result.set(found);
+						super.found(found);
+					}
+				});
+
+				assertTrue(done.await(5, TimeUnit.SECONDS));
+				assertNotNull(result.get().bestMove());
+				assertTrue(result.get().depth() > 1);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Book Moves Skip The Queue")
+	public void bookMove(@TempDir Path directory) throws Exception
+	{
+		Path book = directory.resolve("book.bin");
+		BookBuilder builder = new BookBuilder(2, 1);
+		builder.addPgn(new StringReader("1. d4 d5 *"));
+		builder.write(book);
+
+		AtomicReference<SearchResult> result = new AtomicReference<>();
+
+		//No queue and a worker that is busy for 10 seconds, so only the book can answer
+		try(EnginePool pool = new EnginePool(new EngineConfig(1, 1, 1, 0, 10_000, book, null, 64)))
+		{
+			pool.submit("a", 1, ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"), new Listener(new CountDownLatch(1)));
+			pool.submit("b", 2, new ChessGame(), new Listener(new CountDownLatch(1))
+			{
+				@Override
+				public void found(SearchResult found)
+				{
+					result.set(found);
+				}
+			});
+
+			//Answered before submit returned
+			assertEquals(new ChessMove(ChessPosition.of(2, 4), ChessPosition.of(4, 4), null), result.get().bestMove());
+		}
+	}
+
+	@Test
+	@DisplayName("Tablebase Plays Endings")
+	public void tablebaseMove(@TempDir Path directory) throws Exception
+	{
+		TablebaseGenerator.generate(directory, ChessPiece.PieceType.QUEEN, TablebaseGenerator.DEFAULT_BLOCK_SIZE);
+		ChessGame ending = ChessGame.fromFen("k7/8/1K6/8/8/8/7Q/8 w - - 0 1");
+		AtomicReference<SearchResult> result = new AtomicReference<>();
+
+		//No pawn table, so the first request takes the only worker
+		try(EnginePool pool = new EnginePool(new EngineConfig(1, 1, 1, 0, 10_000, null, directory, 4)))
+		{
+			pool.submit("a", 1, ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"), new Listener(new CountDownLatch(1)));
+			pool.submit("b", 2, ending, new Listener(new CountDownLatch(1))
+			{
+				@Override
+				public void found(SearchResult found)
+				{
+					result.set(found);
+				}
+			});
+
+			assertEquals(new ChessMove(ChessPosition.of(2, 8), ChessPosition.of(8, 8), null), result.get().bestMove());
+			assertEquals(new Tablebase.Result(Tablebase.Outcome.WIN, 1), pool.probeTablebase(ending));
+		}
+	}
+
+	@Test
+	@DisplayName("Full Queue Rejects Requests")
+	public void rejected() throws Exception
+	{
+		try(EnginePool pool = new EnginePool(new EngineConfig(1, 1, 1, 1, 10_000, null, null, 64)))
+		{
+			Listener listener = new Listener(new CountDownLatch(1));
+
+			pool.submit("a", 1, new ChessGame(), listener);
+			pool.submit("b", 2, new ChessGame(), listener);
+			assertThrows(EngineBusyException.class, () -> pool.submit("c", 3, new ChessGame(), listener));
+		}
+	}
+
+	@Test
+	@DisplayName("Cancelling Removes Queued Requests")
+	public void cancelledInQueue() throws Exception
+	{
+		try(EnginePool pool = new EnginePool(new EngineConfig(1, 1, 1, 1, 10_000, null, null, 64)))
+		{
+			Listener listener = new Listener(new CountDownLatch(1));
+
+			pool.submit("a", 1, new ChessGame(), listener);
+			pool.submit("b", 2, new ChessGame(), listener);
+			pool.cancelOwner("b");
+
+			assertEquals(0, pool.queued());
+			pool.submit("c", 3, new ChessGame(), listener);
+		}
+	}
+
+	@Test
+	@DisplayName("Cancelling Stops Running Searches")
+	public void cancelledWhileSearching() throws Exception
+	{
+		//Without a queue a request is only accepted while the worker is idle
+		try(EnginePool pool = new EnginePool(new EngineConfig(1, 1, 1, 0, 10_000, null, null, 64)))
+		{
+			Listener stale = new Listener(new CountDownLatch(1));
+
+			pool.submit("a", 1, new ChessGame(), stale);
+			assertThrows(EngineBusyException.class, () -> pool.submit("b", 2, new ChessGame(), stale));
+			pool.cancelGame(1);
+
+			//The worker is free again long before the cancelled search's 10 second budget runs out
+			long start = System.currentTimeMillis();
+			while(!accepted(pool))
+			{
+				assertTrue(System.currentTimeMillis() - start < 2000);
+				Thread.sleep(10);
+			}
+			assertEquals(0, stale.calls.get());
+		}
+	}
+
+	@Test
+	@DisplayName("Late Cancels Spare The Next Request")
+	public void lateCancel() throws Exception
+	{
+		try(EnginePool pool = new EnginePool(new EngineConfig(1, 1, 1, 1, 100, null, null, 64)))
+		{
+			//Cancel the first request around when its search runs out of time, while the worker moves on to the second
+			for(int i = 0; i < 20; i++)
+			{
+				AtomicReference<SearchResult> result = new AtomicReference<>();
+				CountDownLatch done = new CountDownLatch(1);
+				Listener next = new Listener(done)
+				{
+					@Override
+					public void found(SearchResult found)
+					{
+						result.set(found);
+						super.found(found);
+					}
+				};
+
+				pool.submit("a", 1, new ChessGame(), new Listener(new CountDownLatch(1)));
+				Thread.sleep(80 + i);
+				pool.submit("b", 2, new ChessGame(), next);
+				pool.cancelGame(1);
+
+				assertTrue(done.await(5, TimeUnit.SECONDS));
+				assertEquals(1, next.calls.get());
+				assertNotNull(result.get(), "The second request was stopped by the first one's cancel");
+				assertTrue(result.get().depth() > 0);
+			}
+		}
+	}
+
+	private static boolean accepted(EnginePool pool)
+	{
+		try
+		{
+			pool.submit("c", 3, new ChessGame(), new Listener(new CountDownLatch(1)));
+			return true;
+		}
+		catch(EngineBusyException e)
+		{
+			return false;
+		}
+	}
+
+	private static class Listener implements EnginePool.Listener
+	{
+		private final CountDownLatch done;
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private Listener(CountDownLatch done)
+		{
+			this.done = done;
+		}
+
+		@Override
+		public void found(SearchResult result)
+		{
+			calls.incrementAndGet();
+			done.countDown();
+		}
+
+		@Override
+		public void expired()
+		{
+			calls.incrementAndGet();
+			done.countDown();
+		}
+	}
+}
@@ -0,0 +1,238 @@
+package chess;
+
+/**
+ * Static helpers and precomputed attack tables for 64-bit bitboards.
+ * <p>
+ * Squares are numbered 0-63 starting at A1 (row 1, column 1) and moving across each row, so
+ * square = (row - 1) * 8 + (column - 1) and bit n of a bitboard represents square n.
+ */
+public final class Bitboard
+{
+	public static final long EMPTY = 0L;
+	public static final long ROW_1 = 0xFFL;
+	public static final long ROW_8 = ROW_1 << 56;
+	public static final long COLUMN_A = 0x0101010101010101L;
+	public static final long COLUMN_H = COLUMN_A << 7;
+
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[] KING_ATTACKS = new long[64];
+	private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+	//Rays in each of the 8 directions, ordered N, NE, E, NW (increasing squares) then S, SW, W, SE (decreasing)
+	private static final int[][] DIRECTIONS = {{1, 0}, {1, 1}, {0, 1}, {1, -1}, {-1, 0}, {-1, -1}, {0, -1}, {-1, 1}};
+	private static final long[][] RAYS = new long[8][64];
+	private static final long[][] BETWEEN = new long[64][64];
+	private static final long[][] LINE = new long[64][64];
+
+	static
+	{
+		int[][] knightOffsets = {{1, 2}, {1, -2}, {-1, 2}, {-1, -2}, {2, 1}, {2, -1}, {-2, 1}, {-2, -1}};
+		int[][] kingOffsets = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+		for(int square = 0; square < 64; square++)
+		{
+			int row = square >>> 3;
+			int col = square & 7;
+
+			KNIGHT_ATTACKS[square] = offsets(row, col, knightOffsets);
+			KING_ATTACKS[square] = offsets(row, col, kingOffsets);
+			PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = offsets(row, col, new int[][]{{1, 1}, {1, -1}});
+			PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = offsets(row, col, new int[][]{{-1, 1}, {-1, -1}});
+
+			for(int direction = 0; direction < 8; direction++)
+			{
+				long ray = EMPTY;
+				int r = row + DIRECTIONS[direction][0];
+				int c = col + DIRECTIONS[direction][1];
+
+				while(onBoard(r, c))
+				{
+					ray |= 1L << (r * 8 + c);
+					r += DIRECTIONS[direction][0];
+					c += DIRECTIONS[direction][1];
+				}
+
+				RAYS[direction][square] = ray;
+			}
+		}
+
+		for(int square = 0; square < 64; square++)
+		{
+			for(int direction = 0; direction < 8; direction++)
+			{
+				//Opposite directions are 4 apart in DIRECTIONS
+				long line = RAYS[direction][square] | RAYS[(direction + 4) % 8][square] | bit(square);
+				long ray = RAYS[direction][square];
+
+				while(ray != EMPTY)
+				{
+					int other = first(ray);
+					ray = popFirst(ray);
+
+					BETWEEN[square][other] = (RAYS[direction][square] ^ RAYS[direction][other]) & ~bit(other);
+					LINE[square][other] = line;
+				}
+			}
+		}
+	}
+
+	private Bitboard() {}
+
+	/**
+	 * @param row    1-8, with 1 being white's back row
+	 * @param column 1-8, with 1 being the A column
+	 * @return The 0-63 square index of the given row & column.
+	 */
+	public static int square(int row, int column)
+	{
+		return (row - 1) * 8 + (column - 1);
+	}
+
+	public static int square(ChessPosition position)
+	{
+		return square(position.getRow(), position.getColumn());
+	}
+
+	/**
+	 * @return The 1-8 row of the given square index.
+	 */
+	public static int row(int square)
+	{
+		return (square >>> 3) + 1;
+	}
+
+	/**
+	 * @return The 1-8 column of the given square index.
+	 */
+	public static int column(int square)
+	{
+		return (square & 7) + 1;
+	}
+
+	public static long bit(int square)
+	{
+		return 1L << square;
+	}
+
+	/**
+	 * @return Square index of the lowest set bit; 64 if the bitboard is empty.
+	 */
+	public static int first(long bitboard)
+	{
+		return Long.numberOfTrailingZeros(bitboard);
+	}
+
+	/**
+	 * @return The bitboard with its lowest set bit cleared.
+	 */
+	public static long popFirst(long bitboard)
+	{
+		return bitboard & (bitboard - 1);
+	}
+
+	public static int count(long bitboard)
+	{
+		return Long.bitCount(bitboard);
+	}
+
+	/**
+	 * @return Squares strictly between two squares on the same row, column or diagonal; empty if they don't share one.
+	 */
+	public static long between(int from, int to)
+	{
+		return BETWEEN[from][to];
+	}
+
+	/**
+	 * @return The whole row, column or diagonal through both squares, edge to edge; empty if they don't share one.
+	 */
+	public static long line(int from, int to)
+	{
+		return LINE[from][to];
+	}
+
+	public static long knightAttacks(int square)
+	{
+		return KNIGHT_ATTACKS[square];
+	}
+
+	public static long kingAttacks(int square)
+	{
+		return KING_ATTACKS[square];
+	}
+
+	/**
+	 * @param color The color of the attacking pawn
+	 * @return The diagonal squares a pawn of the given color on the given square attacks.
+	 */
+	public static long pawnAttacks(ChessGame.TeamColor color, int square)
+	{
+		return PAWN_ATTACKS[color.ordinal()][square];
+	}
+
+	/**
+	 * @param occupied Every occupied square on the board; each ray stops at (and includes) the first blocker.
+	 */
+	public static long rookAttacks(int square, long occupied)
+	{
+		return positiveRay(0, square, occupied) | positiveRay(2, square, occupied)
+				| negativeRay(4, square, occupied) | negativeRay(6, square, occupied);
+	}
+
+	public static long bishopAttacks(int square, long occupied)
+	{
+		return positiveRay(1, square, occupied) | positiveRay(3, square, occupied)
+				| negativeRay(5, square, occupied) | negativeRay(7, square, occupied);
+	}
+
+	public static long queenAttacks(int square, long occupied)
+	{
+		return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+	}
+
+	private static long positiveRay(int direction, int square, long occupied)
+	{
+		long ray = RAYS[direction][square];
+		long blockers = ray & occupied;
+
+		if(blockers != EMPTY)
+		{
+			ray ^= RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+		}
+		return ray;
+	}
+
+	private static long negativeRay(int direction, int square, long occupied)
+	{
+		long ray = RAYS[direction][square];
+		long blockers = ray & occupied;
+
+		if(blockers != EMPTY)
+		{
+			ray ^= RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+		}
+		return ray;
+	}
+
+	private static long offsets(int row, int col, int[][] offsets)
+	{
+		long attacks = EMPTY;
+
+		for(int[] offset : offsets)
+		{
+			int r = row + offset[0];
+			int c = col + offset[1];
+
+			if(onBoard(r, c))
+			{
+				attacks |= 1L << (r * 8 + c);
+			}
+		}
+		return attacks;
+	}
+
+	private static boolean onBoard(int row, int col)
+	{
+		return row >= 0 && row < 8 && col >= 0 && col < 8;
+	}
+}
@@ -3,7 +3,6 @@ package chess;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.Objects;
 import chess.ChessGame.ChessPieceAndPosition;
 
 import static java.lang.Math.abs;
@@ -16,7 +15,68 @@ import static java.lang.Math.abs;
  */
 public class ChessBoard
 {
+	//Castling rights bitmask, see getCastlingRights()
+	public static final int WHITE_KINGSIDE = 1;
+	public static final int WHITE_QUEENSIDE = 2;
+	public static final int BLACK_KINGSIDE = 4;
+	public static final int BLACK_QUEENSIDE = 8;
+
+	public static final int NO_EN_PASSANT = -1;
+
+	//Undo record layout for makeMove()/unmakeMove(): bits 0-4 hold the captured piece code, bit 5 the mover's hasMoved,
+	//bits 6-12 the prior en passant square + 1, bit 13 whether the move captured en passant and bits 14-17 the prior
+	//castling rights
+	private static final int UNDO_CAPTURE_MASK = 0x1F;
+	private static final int UNDO_MOVER_HAD_MOVED = 1 << 5;
+	private static final int UNDO_EN_PASSANT_SHIFT = 6;
+	private static final int UNDO_EN_PASSANT_MASK = 0x7F;
+	private static final int UNDO_EN_PASSANT_CAPTURE = 1 << 13;
+	private static final int UNDO_CASTLING_SHIFT = 14;
+
+	//Castling rights that survive a move from or to each square; only the king & rook starting squares clear any
+	private static final int[] CASTLING_KEPT = new int[64];
+
+	static
+	{
+		Arrays.fill(CASTLING_KEPT, WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE);
+		CASTLING_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+		CASTLING_KEPT[7] &= ~WHITE_KINGSIDE;
+		CASTLING_KEPT[0] &= ~WHITE_QUEENSIDE;
+		CASTLING_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+		CASTLING_KEPT[63] &= ~BLACK_KINGSIDE;
+		CASTLING_KEPT[56] &= ~BLACK_QUEENSIDE;
+	}
+
+	private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+	private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
 	private ChessPiece[][] boardState;
+	//Square a pawn skipped over with a double move on the last move, see getEnPassantSquare()
+	private int enPassantSquare = NO_EN_PASSANT;
+	//Bitmask of castling rights, or -1 until derived from the kings' & rooks' hasMoved flags (see getCastlingRights())
+	private int castlingRights = -1;
+
+	// Bitboards derived from boardState: one per color & piece type plus one occupancy mask per color. They aren't
+	// serialized, so they are left null until first use and rebuilt from boardState (e.g. after Gson deserialization).
+	private transient long[] pieceBoards;
+	private transient long[] teamBoards;
+	//Zobrist key of the piece placement, kept up to date alongside the bitboards
+	private transient long placementKey;
+	//Told about every piece placed or removed, so scores derived from the placement can be kept up to date
+	private transient PieceListener pieceListener;
+
+	/**
+	 * Receives every change to the board's pieces, including those made and taken back by makeMove() and
+	 * unmakeMove(). A move changes several squares, so the board is only consistent once the move is complete.
+	 */
+	public interface PieceListener
+	{
+		/**
+		 * @param removed The piece that was on the square, or null if it was empty
+		 * @param added   The piece now on the square, or null if it is now empty
+		 */
+		void pieceChanged(int square, ChessPiece removed, ChessPiece added);
+	}
 
 	public ChessBoard()
 	{
@@ -25,22 +85,35 @@ public class ChessBoard
 
 	public ChessBoard(ChessBoard original)
 	{
-		this.boardState = new ChessPiece[8][8];
+		//Pieces are immutable, so the copy can share them
+		this.boardState = new ChessPiece[8][];
 
 		for(int row = 0; row < 8; row++)
 		{
-			for(int col = 0; col < 8; col++)
-			{
-				ChessPiece piece = original.boardState[row][col];
+			this.boardState[row] = original.boardState[row].clone();
+		}
+		this.enPassantSquare = original.enPassantSquare;
+		this.castlingRights = original.castlingRights;
 
-				if(piece != null)
-				{
-					this.boardState[row][col] = new ChessPiece(piece.getTeamColor(), piece.getPieceType());
-				}
-			}
+		if(original.pieceBoards != null)
+		{
+			this.pieceBoards = original.pieceBoards.clone();
+			this.teamBoards = original.teamBoards.clone();
+			this.placementKey = original.placementKey;
 		}
 	}
 
+	/**
+	 * Builds a board from the placement, castling & en passant fields of a FEN string. The side to move and clocks
+	 * belong to the game, see {@link ChessGame#fromFen(String)}.
+	 *
+	 * @throws IllegalArgumentException if the FEN is malformed
+	 */
+	public static ChessBoard fromFen(String fen)
+	{
+		return Fen.board(Fen.fields(fen));
+	}
+
 	/**
 	 * Adds a chess piece to the chessboard
 	 *
@@ -49,7 +122,9 @@ public class ChessBoard
 	 */
 	public void addPiece(ChessPosition position, ChessPiece piece)
 	{
-		boardState[position.getRow() - 1][position.getColumn() - 1] = piece;
+		setSquare(Bitboard.square(position), piece);
+		//A hand-placed king or rook may gain or lose a right, so work them out again from the pieces
+		castlingRights = -1;
 	}
 
 	/**
@@ -64,6 +139,171 @@ public class ChessBoard
 		return boardState[position.getRow() - 1][position.getColumn() - 1];
 	}
 
+	/**
+	 * @param square 0-63 square index, see {@link Bitboard#square(int, int)}
+	 * @return Either the piece on the square, or null if the square is empty
+	 */
+	public ChessPiece getPiece(int square)
+	{
+		return boardState[square >>> 3][square & 7];
+	}
+
+	/**
+	 * @return Bitboard of every square holding a piece of the given color & type.
+	 */
+	public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type)
+	{
+		sync();
+		return pieceBoards[boardIndex(color, type)];
+	}
+
+	/**
+	 * @return Bitboard of every square holding a piece of the given color.
+	 */
+	public long getTeamOccupancy(ChessGame.TeamColor color)
+	{
+		sync();
+		return teamBoards[color.ordinal()];
+	}
+
+	/**
+	 * @return Bitboard of every occupied square.
+	 */
+	public long getOccupancy()
+	{
+		sync();
+		return teamBoards[0] | teamBoards[1];
+	}
+
+	/**
+	 * Sets the single listener told about piece changes from now on, or removes it if null. Listeners aren't copied
+	 * with the board.
+	 */
+	public void setPieceListener(PieceListener listener)
+	{
+		pieceListener = listener;
+	}
+
+	/**
+	 * @return The listener told about piece changes, or null if there is none
+	 */
+	public PieceListener getPieceListener()
+	{
+		return pieceListener;
+	}
+
+	/**
+	 * 64-bit Zobrist key of the position on this board: piece placement, castling rights and the en passant column
+	 * when a pawn can actually capture there. The side to move isn't part of the board; see
+	 * {@link ChessGame#getZobristKey()}.
+	 */
+	public long getZobristKey()
+	{
+		sync();
+		long key = placementKey ^ Zobrist.castling(getCastlingRights());
+
+		//An en passant square nobody can capture on doesn't change the position, so it mustn't change the key
+		if(enPassantSquare != NO_EN_PASSANT && enPassantCapturers() != Bitboard.EMPTY)
+		{
+			key ^= Zobrist.enPassant(enPassantSquare & 7);
+		}
+		return key;
+	}
+
+	/**
+	 * @return Bitboard of the pawns that can capture on the en passant square, ignoring pins
+	 */
+	private long enPassantCapturers()
+	{
+		//The square is on row 3 after a white double move, so black captures it, and on row 6 the other way round
+		ChessGame.TeamColor capturer = enPassantSquare < 32 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+		ChessGame.TeamColor victim = capturer == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+		return Bitboard.pawnAttacks(victim, enPassantSquare) & getPieces(capturer, ChessPiece.PieceType.PAWN);
+	}
+
+	/**
+	 * @return 0-63 square a pawn passed over with a double move on the previous move, or NO_EN_PASSANT
+	 */
+	public int getEnPassantSquare()
+	{
+		return enPassantSquare;
+	}
+
+	public void setEnPassantSquare(int square)
+	{
+		enPassantSquare = square;
+	}
+
+	/**
+	 * Castling rights as a bitmask of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE & BLACK_QUEENSIDE. They are
+	 * updated as moves are made; a board set up by hand starts with a right for every king and corner rook that are
+	 * on their starting squares and haven't moved.
+	 */
+	public int getCastlingRights()
+	{
+		if(castlingRights < 0)
+		{
+			int rights = 0;
+
+			if(unmoved(4, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING))
+			{
+				rights |= unmoved(7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK) ? WHITE_KINGSIDE : 0;
+				rights |= unmoved(0, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK) ? WHITE_QUEENSIDE : 0;
+			}
+			if(unmoved(60, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING))
+			{
+				rights |= unmoved(63, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK) ? BLACK_KINGSIDE : 0;
+				rights |= unmoved(56, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK) ? BLACK_QUEENSIDE : 0;
+			}
+
+			castlingRights = rights;
+		}
+
+		return castlingRights;
+	}
+
+	/**
+	 * Overrides the castling rights; the caller is responsible for each right's king & rook being in place.
+	 */
+	public void setCastlingRights(int rights)
+	{
+		castlingRights = rights;
+	}
+
+	private boolean unmoved(int square, ChessGame.TeamColor color, ChessPiece.PieceType type)
+	{
+		ChessPiece piece = getPiece(square);
+		return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type && !piece.getHasMoved();
+	}
+
+	/**
+	 * Squares attacked by the piece on the given square, including squares occupied by its own team (which it
+	 * defends). Pawns only attack diagonally, so their forward pushes are not included.
+	 *
+	 * @param square 0-63 square index of the attacking piece
+	 * @return Bitboard of attacked squares, or an empty bitboard if the square is empty
+	 */
+	public long attacksFrom(int square)
+	{
+		ChessPiece piece = getPiece(square);
+
+		if(piece == null)
+		{
+			return Bitboard.EMPTY;
+		}
+
+		return switch(piece.getPieceType())
+		{
+			case KING -> Bitboard.kingAttacks(square);
+			case QUEEN -> Bitboard.queenAttacks(square, getOccupancy());
+			case BISHOP -> Bitboard.bishopAttacks(square, getOccupancy());
+			case KNIGHT -> Bitboard.knightAttacks(square);
+			case ROOK -> Bitboard.rookAttacks(square, getOccupancy());
+			case PAWN -> Bitboard.pawnAttacks(piece.getTeamColor(), square);
+		};
+	}
+
 	/**
 	 * Implemented to make for each loop usable in ChessGame
 	 *
@@ -75,23 +315,58 @@ public class ChessBoard
 		return () -> new ChessPieceIterator(color);
 	}
 
+	/**
+	 * Checks whether any piece of the attacking team attacks the square, working outward from the square itself:
+	 * knight & king offsets, pawn diagonals and sliding rays that stop at the first blocker.
+	 *
+	 * @param square   0-63 square index being tested
+	 * @param attacker The team whose attacks are being looked for
+	 * @return True if at least one piece of the attacking team attacks the square
+	 */
+	public boolean isSquareAttacked(int square, ChessGame.TeamColor attacker)
+	{
+		return attackersOf(square, attacker, getOccupancy()) != Bitboard.EMPTY;
+	}
+
+	/**
+	 * @param occupied Occupancy used to block sliding pieces; callers can remove or add pieces to test hypotheticals
+	 * @return Bitboard of every piece of the attacking team that attacks the square.
+	 */
+	public long attackersOf(int square, ChessGame.TeamColor attacker, long occupied)
+	{
+		sync();
+
+		int base = boardIndex(attacker, ChessPiece.PieceType.KING);
+		long queens = pieceBoards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+		long rooks = pieceBoards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+		long bishops = pieceBoards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+		ChessGame.TeamColor defender = attacker == ChessGame.TeamColor.WHITE ?
+				ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+		//A pawn attacks this square exactly when a defending pawn here would attack the pawn's square
+		return (Bitboard.pawnAttacks(defender, square) & pieceBoards[base + ChessPiece.PieceType.PAWN.ordinal()])
+				| (Bitboard.knightAttacks(square) & pieceBoards[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+				| (Bitboard.kingAttacks(square) & pieceBoards[base])
+				| (Bitboard.rookAttacks(square, occupied) & rooks)
+				| (Bitboard.bishopAttacks(square, occupied) & bishops);
+	}
+
+	/**
+	 * Walks the team's occupancy bitboard as it was when the iterator was created.
+	 */
 	private class ChessPieceIterator implements Iterator<ChessPieceAndPosition>
 	{
-		private final ChessGame.TeamColor targetTeam;
-		private int row = 0;
-		private int col = 0;
-		private boolean hasNext = false;
+		private long remaining;
 
 		public ChessPieceIterator(ChessGame.TeamColor color)
 		{
-			targetTeam = color;
-			findNext();
+			remaining = getTeamOccupancy(color);
 		}
 
 		@Override
 		public boolean hasNext()
 		{
-			return hasNext;
+			return remaining != Bitboard.EMPTY;
 		}
 
 		@Override
@@ -102,47 +377,21 @@ public class ChessBoard
 				throw new NoSuchElementException("No more chess pieces");
 			}
 
-			ChessPiece current = boardState[row][col];
-			ChessPosition position = new ChessPosition(row + 1, col + 1);
+			int square = Bitboard.first(remaining);
+			remaining = Bitboard.popFirst(remaining);
 
-			col++;
-			if(col > 7)
-			{
-				col = 0;
-				row++;
-			}
-			findNext();
-
-			return new ChessPieceAndPosition(current, position);
-		}
-
-		private void findNext()
-		{
-			hasNext = false;
-			while(row < 8)
-			{
-				while(col < 8)
-				{
-					ChessPiece piece = boardState[row][col];
-
-					if(piece != null && piece.getTeamColor() == targetTeam)
-					{
-						hasNext = true;
-						return;
-					}
-
-					col++;
-				}
-
-				col = 0;
-				row++;
-			}
+			return new ChessPieceAndPosition(getPiece(square), ChessPosition.of(square));
 		}
 	}
 
 	public boolean occupied(ChessPosition position)
 	{
-		return boardState[position.getRow() - 1][position.getColumn() - 1] != null;
+		return occupied(Bitboard.square(position));
+	}
+
+	public boolean occupied(int square)
+	{
+		return (getOccupancy() & Bitboard.bit(square)) != Bitboard.EMPTY;
 	}
 
 	/**
@@ -154,68 +403,117 @@ public class ChessBoard
 	 */
 	public boolean containsEnemy(ChessPosition position, ChessPiece piece)
 	{
-		return this.occupied(position) && getPiece(position).getTeamColor() != piece.getTeamColor();
+		ChessGame.TeamColor enemy = piece.getTeamColor() == ChessGame.TeamColor.WHITE ?
+				ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+		return (getTeamOccupancy(enemy) & Bitboard.bit(Bitboard.square(position))) != Bitboard.EMPTY;
 	}
 
-	public boolean inStartingPosition(ChessPiece testPiece, ChessPosition position)
+	/**
+	 * Applies ChessMove to the board. Assumes that the move is valid as logic is found in makeMove() in ChessGame.
+	 */
+	public void movePiece(ChessMove move)
 	{
-		ChessBoard startingBoard = new ChessBoard();
-		startingBoard.resetBoard();
-
-		for(ChessPieceAndPosition piecePair : startingBoard.getTeamPieces(testPiece.getTeamColor()))
-		{
-			if(piecePair.piece().getPieceType() == testPiece.getPieceType() && position.equals(piecePair.position()))
-			{
-				return true;
-			}
-		}
+		makeMove(move.pack());
+	}
 
-		return false;
+	/**
+	 * Applies the move in place, like movePiece(), and returns a compact undo record so the move can be taken back
+	 * with unmakeMove() instead of copying the board. Assumes the move is valid for the piece at its start position.
+	 *
+	 * @return Undo record holding the captured piece and the moving piece's prior hasMoved flag
+	 */
+	public int makeMove(ChessMove move)
+	{
+		return makeMove(move.pack());
 	}
-	
+
 	/**
-	 * Applies ChessMove to the board. Assumes that the move is valid as logic is found in makeMove() in ChessGame.
+	 * Packed move version of {@link #makeMove(ChessMove)}. Only the start, end & promotion of the move are used;
+	 * castling is recognised from the king moving two columns, and en passant from a pawn moving diagonally onto an
+	 * empty square.
+	 *
+	 * @param move Move encoded as described in {@link PackedMove}
+	 * @return Undo record to pass to {@link #unmakeMove(int, int)}
 	 */
-	public void movePiece(ChessMove move)
+	public int makeMove(int move)
 	{
-		//Readability variables
-		ChessPiece piece = getPiece(move.getStartPosition());
+		int start = PackedMove.start(move);
+		int end = PackedMove.end(move);
+		ChessPiece piece = getPiece(start);
 		ChessGame.TeamColor color = piece.getTeamColor();
-		ChessPosition start = move.getStartPosition();
-		ChessPosition end = move.getEndPosition();
+		ChessPiece.PieceType promotion = PackedMove.promotion(move);
+		ChessPiece captured = getPiece(end);
+		int rights = getCastlingRights();
+		int undo = pieceCode(captured) | (piece.getHasMoved() ? UNDO_MOVER_HAD_MOVED : 0)
+				| (enPassantSquare + 1) << UNDO_EN_PASSANT_SHIFT | rights << UNDO_CASTLING_SHIFT;
 
-		switch(move.getPromotionPiece())
-		{
-			case null:
-				this.addPiece(end, new ChessPiece(color, piece.getPieceType(), true));
-				break;
-			case QUEEN:
-				this.addPiece(end, new ChessPiece(color, ChessPiece.PieceType.QUEEN, true));
-				break;
-			case KNIGHT:
-				this.addPiece(end, new ChessPiece(color, ChessPiece.PieceType.KNIGHT, true));
-				break;
-			case BISHOP:
-				this.addPiece(end, new ChessPiece(color, ChessPiece.PieceType.BISHOP, true));
-				break;
-			case ROOK:
-				this.addPiece(end, new ChessPiece(color, ChessPiece.PieceType.ROOK, true));
-				break;
-			case KING, PAWN:
-				break;
-		}
+		//Moving a king or rook, or capturing a rook in its corner, loses the rights that depend on it
+		castlingRights = rights & CASTLING_KEPT[start] & CASTLING_KEPT[end];
 
+		setSquare(end, ChessPiece.of(color, promotion == null ? piece.getPieceType() : promotion, true));
+		setSquare(start, null);
+		enPassantSquare = NO_EN_PASSANT;
 
-		if(piece.getPieceType() == ChessPiece.PieceType.KING && abs(start.getColumn() - end.getColumn()) > 1)
+		if(piece.getPieceType() == ChessPiece.PieceType.KING && abs(start - end) == 2)
 		{
 			moveRook(end, color);
 		}
 		else if(piece.getPieceType() == ChessPiece.PieceType.PAWN)
 		{
-			//En Passant Move Implementation
+			if(abs(start - end) == 16)
+			{
+				enPassantSquare = (start + end) / 2;
+			}
+			else if(captured == null && (start & 7) != (end & 7))
+			{
+				//En passant: the captured pawn is beside the start square, in the end square's column
+				setSquare((start & ~7) | (end & 7), null);
+				undo |= UNDO_EN_PASSANT_CAPTURE;
+			}
 		}
 
-		this.removePiece(move.getStartPosition());
+		return undo;
+	}
+
+	/**
+	 * Reverts a move applied by makeMove(). Moves must be unmade in the reverse order they were made.
+	 *
+	 * @param move The move that was made
+	 * @param undo The undo record makeMove() returned for that move
+	 */
+	public void unmakeMove(ChessMove move, int undo)
+	{
+		unmakeMove(move.pack(), undo);
+	}
+
+	public void unmakeMove(int move, int undo)
+	{
+		int start = PackedMove.start(move);
+		int end = PackedMove.end(move);
+		ChessPiece moved = getPiece(end);
+		ChessGame.TeamColor color = moved.getTeamColor();
+		ChessPiece.PieceType type = PackedMove.promotion(move) == null ? moved.getPieceType() : ChessPiece.PieceType.PAWN;
+
+		setSquare(start, ChessPiece.of(color, type, (undo & UNDO_MOVER_HAD_MOVED) != 0));
+		setSquare(end, pieceFromCode(undo & UNDO_CAPTURE_MASK));
+		enPassantSquare = ((undo >>> UNDO_EN_PASSANT_SHIFT) & UNDO_EN_PASSANT_MASK) - 1;
+		castlingRights = undo >>> UNDO_CASTLING_SHIFT;
+
+		if((undo & UNDO_EN_PASSANT_CAPTURE) != 0)
+		{
+			ChessGame.TeamColor victim = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+			setSquare((start & ~7) | (end & 7), ChessPiece.of(victim, ChessPiece.PieceType.PAWN, true));
+		}
+
+		//Castling rooks are always unmoved, so they go back to their corner with hasMoved cleared
+		if(type == ChessPiece.PieceType.KING && abs(start - end) == 2)
+		{
+			boolean queenside = end < start;
+
+			setSquare(queenside ? end + 1 : end - 1, null);
+			setSquare(queenside ? end - 2 : end + 1, ChessPiece.of(color, ChessPiece.PieceType.ROOK));
+		}
 	}
 
 	/**
@@ -233,14 +531,26 @@ public class ChessBoard
 
 	private void clearBoard()
 	{
+		if(pieceListener != null)
+		{
+			for(int square = 0; square < 64; square++)
+			{
+				setSquare(square, null);
+			}
+		}
+
 		boardState = new ChessPiece[8][8];
+		enPassantSquare = NO_EN_PASSANT;
+		castlingRights = -1;
+		pieceBoards = null;
+		teamBoards = null;
 	}
 
 	private void pawnRow(int row, ChessGame.TeamColor color)
 	{
 		for(int col = 0; col < 8; col++)
 		{
-			boardState[row][col] = new ChessPiece(color, ChessPiece.PieceType.PAWN);
+			setSquare(row * 8 + col, ChessPiece.of(color, ChessPiece.PieceType.PAWN));
 		}
 	}
 
@@ -252,21 +562,21 @@ public class ChessBoard
 			{
 				case 0:
 				case 7:
-					boardState[row][col] = new ChessPiece(color, ChessPiece.PieceType.ROOK);
+					setSquare(row * 8 + col, ChessPiece.of(color, ChessPiece.PieceType.ROOK));
 					break;
 				case 1:
 				case 6:
-					boardState[row][col] = new ChessPiece(color, ChessPiece.PieceType.KNIGHT);
+					setSquare(row * 8 + col, ChessPiece.of(color, ChessPiece.PieceType.KNIGHT));
 					break;
 				case 2:
 				case 5:
-					boardState[row][col] = new ChessPiece(color, ChessPiece.PieceType.BISHOP);
+					setSquare(row * 8 + col, ChessPiece.of(color, ChessPiece.PieceType.BISHOP));
 					break;
 				case 3:
-					boardState[row][col] = new ChessPiece(color, ChessPiece.PieceType.QUEEN);
+					setSquare(row * 8 + col, ChessPiece.of(color, ChessPiece.PieceType.QUEEN));
 					break;
 				case 4:
-					boardState[row][col] = new ChessPiece(color, ChessPiece.PieceType.KING);
+					setSquare(row * 8 + col, ChessPiece.of(color, ChessPiece.PieceType.KING));
 					break;
 			}
 		}
@@ -280,13 +590,17 @@ public class ChessBoard
 			return false;
 		}
 		ChessBoard that = (ChessBoard) o;
-		return Objects.deepEquals(boardState, that.boardState);
+		sync();
+		that.sync();
+		return Arrays.equals(pieceBoards, that.pieceBoards);
 	}
 
 	@Override
 	public int hashCode()
 	{
-		return Arrays.deepHashCode(boardState);
+		//Placement only, since equals() ignores castling rights
+		sync();
+		return Long.hashCode(placementKey);
 	}
 
 	@Override
@@ -315,44 +629,108 @@ public class ChessBoard
 	}
 
 	/**
-	 * Removes piece at the given position.
-	 * @param position Location for piece to be removed.
+	 * Places the piece on the square (or empties it if piece is null), keeping the bitboards in sync with boardState.
 	 */
-	private void removePiece(ChessPosition position)
+	private void setSquare(int square, ChessPiece piece)
 	{
-		boardState[position.getRow() - 1][position.getColumn() - 1] = null;
+		sync();
+
+		long mask = Bitboard.bit(square);
+		ChessPiece old = boardState[square >>> 3][square & 7];
+
+		if(old != null)
+		{
+			pieceBoards[boardIndex(old.getTeamColor(), old.getPieceType())] &= ~mask;
+			teamBoards[old.getTeamColor().ordinal()] &= ~mask;
+			placementKey ^= Zobrist.piece(old, square);
+		}
+		if(piece != null)
+		{
+			pieceBoards[boardIndex(piece.getTeamColor(), piece.getPieceType())] |= mask;
+			teamBoards[piece.getTeamColor().ordinal()] |= mask;
+			placementKey ^= Zobrist.piece(piece, square);
+		}
+
+		boardState[square >>> 3][square & 7] = piece;
+
+		if(pieceListener != null)
+		{
+			pieceListener.pieceChanged(square, old, piece);
+		}
 	}
 
 	/**
-	 * Logic for castling; assumes move is valid.
-	 * @param kingEnd End location of the castling king.
-	 * @param kingColor Team color of the castling king.
+	 * Rebuilds the bitboards from boardState if they haven't been built yet.
 	 */
-	private void moveRook(ChessPosition kingEnd, ChessGame.TeamColor kingColor)
+	private void sync()
 	{
-		if(kingEnd.getColumn() == 3)
+		if(pieceBoards != null)
 		{
-			if(kingColor == ChessGame.TeamColor.WHITE)
-			{
-				removePiece(new ChessPosition(1, 1));
-			}
-			else
-			{
-				removePiece(new ChessPosition(8, 1));
-			}
-			this.addPiece(kingEnd.offset(0, 1), new ChessPiece(kingColor, ChessPiece.PieceType.ROOK, true));
+			return;
 		}
-		else if(kingEnd.getColumn() == 7)
+
+		long[] pieces = new long[12];
+		long[] teams = new long[2];
+		long key = 0;
+
+		for(int square = 0; square < 64; square++)
 		{
-			if(kingColor == ChessGame.TeamColor.WHITE)
-			{
-				removePiece(new ChessPosition(1, 8));
-			}
-			else
+			ChessPiece piece = boardState[square >>> 3][square & 7];
+
+			if(piece != null)
 			{
-				removePiece(new ChessPosition(8, 8));
+				pieces[boardIndex(piece.getTeamColor(), piece.getPieceType())] |= Bitboard.bit(square);
+				teams[piece.getTeamColor().ordinal()] |= Bitboard.bit(square);
+				key ^= Zobrist.piece(piece, square);
 			}
-			this.addPiece(kingEnd.offset(0, -1), new ChessPiece(kingColor, ChessPiece.PieceType.ROOK, true));
 		}
+
+		placementKey = key;
+		teamBoards = teams;
+		pieceBoards = pieces;
+	}
+
+	/**
+	 * @return 0 for no piece, otherwise 1-24 identifying the piece's color, type & hasMoved flag.
+	 */
+	private static int pieceCode(ChessPiece piece)
+	{
+		if(piece == null)
+		{
+			return 0;
+		}
+		return 1 + boardIndex(piece.getTeamColor(), piece.getPieceType()) * 2 + (piece.getHasMoved() ? 1 : 0);
+	}
+
+	private static ChessPiece pieceFromCode(int code)
+	{
+		if(code == 0)
+		{
+			return null;
+		}
+
+		int index = (code - 1) >>> 1;
+		return ChessPiece.of(TEAMS[index / 6], TYPES[index % 6], ((code - 1) & 1) != 0);
+	}
+
+	private static int boardIndex(ChessGame.TeamColor color, ChessPiece.PieceType type)
+	{
+		return color.ordinal() * 6 + type.ordinal();
+	}
+
+	/**
+	 * Logic for castling; assumes move is valid.
+	 * @param kingEnd End square of the castling king.
+	 * @param kingColor Team color of the castling king.
+	 */
+	private void moveRook(int kingEnd, ChessGame.TeamColor kingColor)
+	{
+		//Queenside rooks start two columns past the king's end square, kingside rooks one column past
+		boolean queenside = (kingEnd & 7) == 2;
+		int rookStart = queenside ? kingEnd - 2 : kingEnd + 1;
+		int rookEnd = queenside ? kingEnd + 1 : kingEnd - 1;
+
+		setSquare(rookStart, null);
+		setSquare(rookEnd, ChessPiece.of(kingColor, ChessPiece.PieceType.ROOK, true));
 	}
 }
@@ -1,6 +1,9 @@
 package chess;
 
+import chess.calculators.MoveCalculator;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -12,9 +15,25 @@ import java.util.Objects;
  */
 public class ChessGame
 {
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
     private TeamColor teamToMove;
     private ChessBoard board;
     private boolean gameOver = false;
+    //Moves since the last capture or pawn move, and the number of the current full move (starting at 1)
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+    //Zobrist keys of the positions since the last capture or pawn move, oldest first; none of the earlier positions
+    //can come back, so this is all a repetition check has to look through
+    private long[] history = new long[8];
+    private int historyLength = 0;
+
+    //Legal moves & status of the side to move, generated on demand and kept until the position changes. The key
+    //catches changes made straight to the board, which the game can't see.
+    private transient int[] legalMoves;
+    private transient int legalMoveCount = -1;
+    private transient long legalMovesKey;
+    private transient GameStatus status;
 
     public ChessGame()
     {
@@ -29,6 +48,75 @@ public class ChessGame
         this.board = board;
     }
 
+    /**
+     * Builds a game from a FEN string, e.g. "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1". The
+     * halfmove clock & fullmove number may be left off.
+     *
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame fromFen(String fen)
+    {
+        String[] fields = Fen.fields(fen);
+        ChessGame game = new ChessGame(Fen.board(fields));
+
+        game.teamToMove = Fen.sideToMove(fields);
+        game.halfmoveClock = Fen.clock(fields, 4, 0);
+        game.fullmoveNumber = Fen.clock(fields, 5, 1);
+        return game;
+    }
+
+    /**
+     * @return The position as a FEN string, including the side to move, castling rights, en passant square & clocks.
+     */
+    public String toFen()
+    {
+        return Fen.write(board, teamToMove, halfmoveClock, fullmoveNumber);
+    }
+
+    /**
+     * @return Moves made since the last capture or pawn move
+     */
+    public int getHalfmoveClock()
+    {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return Number of the current full move, starting at 1 and increasing after each black move
+     */
+    public int getFullmoveNumber()
+    {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return Zobrist keys of the positions since the last capture or pawn move, oldest first
+     */
+    public long[] getHistory()
+    {
+        return Arrays.copyOf(history, historyLength);
+    }
+
+    /**
+     * Restores the positions that came before the current one, e.g. for a game loaded from FEN, so repeating them
+     * still counts towards a threefold repetition.
+     *
+     * @param keys Zobrist keys of the positions since the last capture or pawn move, oldest first
+     */
+    public void setHistory(long[] keys)
+    {
+        history = Arrays.copyOf(keys, Math.max(keys.length, 8));
+        historyLength = keys.length;
+    }
+
+    /**
+     * @return Half-moves played since the game began, worked out from the fullmove number and side to move
+     */
+    public int getPly()
+    {
+        return 2 * (fullmoveNumber - 1) + (teamToMove == TeamColor.BLACK ? 1 : 0);
+    }
+
     /**
      * Gets the current chessboard
      *
@@ -47,6 +135,8 @@ public class ChessGame
     public void setBoard(ChessBoard board)
     {
         this.board = board;
+        historyLength = 0;
+        invalidateStatus();
     }
 
     /**
@@ -65,6 +155,16 @@ public class ChessGame
     public void setTeamTurn(TeamColor team)
     {
         teamToMove = team;
+        invalidateStatus();
+    }
+
+    /**
+     * 64-bit Zobrist key of the current position, including the side to move. Equal positions have equal keys, so
+     * it can stand in for the whole game state in caches, repetition checks and equality shortcuts.
+     */
+    public long getZobristKey()
+    {
+        return board.getZobristKey() ^ (teamToMove == TeamColor.BLACK ? Zobrist.blackToMove() : 0);
     }
 
     public boolean isGameOver()
@@ -77,6 +177,140 @@ public class ChessGame
         this.gameOver = true;
     }
 
+    /**
+     * Every legal move of the team whose turn it is, generated in one pass over the position.
+     *
+     * @return Legal moves of the side to move; empty in checkmate or stalemate
+     */
+    public Collection<ChessMove> legalMoves()
+    {
+        generateLegalMoves();
+        Collection<ChessMove> moves = new ArrayList<>(legalMoveCount);
+
+        for(int i = 0; i < legalMoveCount; i++)
+        {
+            moves.add(ChessMove.fromPacked(legalMoves[i]));
+        }
+
+        return moves;
+    }
+
+    /**
+     * Status of the team whose turn it is. It's computed from a single move generation and cached until the
+     * position changes, so asking repeatedly after a move is free. Checkmate and stalemate come first; otherwise a
+     * drawn game reports why it is drawn, even when the side to move is in check.
+     */
+    public GameStatus getStatus()
+    {
+        generateLegalMoves();
+
+        if(status == GameStatus.CHECKMATE || status == GameStatus.STALEMATE)
+        {
+            return status;
+        }
+        //Not cached with the moves: the same position may or may not be a repetition, depending on how it was reached
+        if(insufficientMaterial())
+        {
+            return GameStatus.INSUFFICIENT_MATERIAL;
+        }
+        if(halfmoveClock >= 100)
+        {
+            return GameStatus.FIFTY_MOVE_RULE;
+        }
+        if(repetitions() >= 3)
+        {
+            return GameStatus.THREEFOLD_REPETITION;
+        }
+        return status;
+    }
+
+    /**
+     * @return Whether the game is drawn by repetition, the fifty-move rule or insufficient material
+     */
+    public boolean isDraw()
+    {
+        GameStatus current = getStatus();
+        return current == GameStatus.THREEFOLD_REPETITION || current == GameStatus.FIFTY_MOVE_RULE
+                || current == GameStatus.INSUFFICIENT_MATERIAL;
+    }
+
+    /**
+     * Counts how often the current position has occurred, including now. Only positions with the same side to move
+     * since the last capture or pawn move can match, so however long the game, this looks at no more keys than half
+     * the halfmove clock: at most 50 before the fifty-move rule draws the game.
+     */
+    private int repetitions()
+    {
+        long key = getZobristKey();
+        int count = 1;
+
+        for(int i = historyLength - 2; i >= 0; i -= 2)
+        {
+            if(history[i] == key)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Neither side can checkmate with any series of moves: king against king, king and bishop or knight against
+     * king, or kings and bishops that all stand on squares of one color.
+     */
+    private boolean insufficientMaterial()
+    {
+        long kings = board.getPieces(TeamColor.WHITE, ChessPiece.PieceType.KING)
+                | board.getPieces(TeamColor.BLACK, ChessPiece.PieceType.KING);
+        long others = board.getOccupancy() & ~kings;
+
+        if(Bitboard.count(others) <= 1)
+        {
+            long minors = board.getPieces(TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                    | board.getPieces(TeamColor.BLACK, ChessPiece.PieceType.BISHOP)
+                    | board.getPieces(TeamColor.WHITE, ChessPiece.PieceType.KNIGHT)
+                    | board.getPieces(TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+            return others == minors;
+        }
+
+        long bishops = board.getPieces(TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                | board.getPieces(TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        return others == bishops && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+
+    private void generateLegalMoves()
+    {
+        long key = getZobristKey();
+
+        if(legalMoveCount >= 0 && legalMovesKey == key)
+        {
+            return;
+        }
+        if(legalMoves == null)
+        {
+            legalMoves = new int[MoveGenerator.MAX_MOVES];
+        }
+
+        legalMoveCount = MoveGenerator.legalMoves(board, teamToMove, legalMoves);
+        legalMovesKey = key;
+
+        boolean check = inCheck(teamToMove, board);
+        if(legalMoveCount == 0)
+        {
+            status = check ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        else
+        {
+            status = check ? GameStatus.CHECK : GameStatus.IN_PROGRESS;
+        }
+    }
+
+    private void invalidateStatus()
+    {
+        legalMoveCount = -1;
+        status = null;
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -87,30 +321,39 @@ public class ChessGame
     public Collection<ChessMove> validMoves(ChessPosition startPosition)
     {
         ChessPiece piece = board.getPiece(startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
 
         if(piece == null)
         {
             return null;
         }
 
-        // For legibility & debugging purposes. pieceMoves is a list of moves that a specific piece could make regarding
-        // its own movement rules. validMoves contains the list of moves that account for chess rules (such as check).
-        Collection<ChessMove> pieceMoves = piece.pieceMoves(board, startPosition);
+        int[] moves = new int[MoveCalculator.MAX_PIECE_MOVES];
+        int count = validMoves(Bitboard.square(startPosition), moves);
+        Collection<ChessMove> validMoves = new ArrayList<>(count);
 
-        for(ChessMove move : pieceMoves)
+        for(int i = 0; i < count; i++)
         {
-            if(legalMove(move, board))
-            {
-                validMoves.add(move);
-            }
+            validMoves.add(ChessMove.fromPacked(moves[i]));
         }
 
         return validMoves;
     }
 
     /**
-     * Checks whether the provided move places your king in check.
+     * Packed move version of validMoves(), see {@link MoveGenerator}.
+     *
+     * @param square  Square of the piece to get valid moves for; must not be empty
+     * @param buffer  Destination for the moves, see {@link PackedMove}
+     * @return Number of valid moves written to the buffer
+     */
+    private int validMoves(int square, int[] buffer)
+    {
+        return MoveGenerator.legalMoves(board, square, buffer);
+    }
+
+    /**
+     * Checks whether the provided move places your king in check. The move is made and unmade in place, so the
+     * board is left as it was found.
      *
      * @param move  Chess move that is being checked.
      * @param board The relevant chess board object.
@@ -118,11 +361,16 @@ public class ChessGame
      */
     public boolean legalMove(ChessMove move, ChessBoard board)
     {
-        ChessBoard testBoard = new ChessBoard(board);
-        ChessPiece piece = testBoard.getPiece(move.getStartPosition());
-        testBoard.movePiece(move);
+        return legalMove(move.pack(), board.getPiece(move.getStartPosition()).getTeamColor(), board);
+    }
 
-        return !inCheck(piece.getTeamColor(), testBoard);
+    private boolean legalMove(int move, TeamColor color, ChessBoard board)
+    {
+        int undo = board.makeMove(move);
+        boolean legal = !inCheck(color, board);
+        board.unmakeMove(move, undo);
+
+        return legal;
     }
 
     /**
@@ -134,7 +382,6 @@ public class ChessGame
     public void makeMove(ChessMove move) throws InvalidMoveException
     {
         ChessPiece piece = this.board.getPiece(move.getStartPosition());
-        Collection<ChessMove> validMoves = validMoves(move.getStartPosition());
 
         if(piece == null)
         {
@@ -148,15 +395,48 @@ public class ChessGame
         {
             throw  new InvalidMoveException("The game has already ended.");
         }
-        else if(validMoves.contains(move))
+
+        int packed = move.pack();
+        int[] validMoves = new int[MoveCalculator.MAX_PIECE_MOVES];
+        int count = validMoves(PackedMove.start(packed), validMoves);
+
+        for(int i = 0; i < count; i++)
         {
-            this.board.movePiece(move);
-            setTeamTurn(otherTeam(getTeamTurn()));
+            if(PackedMove.sameMove(validMoves[i], packed))
+            {
+                boolean capture = this.board.occupied(PackedMove.end(packed));
+                long key = getZobristKey();
+                this.board.makeMove(validMoves[i]);
+
+                if(capture || piece.getPieceType() == ChessPiece.PieceType.PAWN)
+                {
+                    halfmoveClock = 0;
+                    historyLength = 0;
+                }
+                else
+                {
+                    halfmoveClock++;
+                    pushHistory(key);
+                }
+                if(teamToMove == TeamColor.BLACK)
+                {
+                    fullmoveNumber++;
+                }
+                setTeamTurn(otherTeam(getTeamTurn()));
+                return;
+            }
         }
-        else
+
+        throw new InvalidMoveException("That move is illegal.");
+    }
+
+    private void pushHistory(long key)
+    {
+        if(historyLength == history.length)
         {
-            throw new InvalidMoveException("That move is illegal.");
+            history = Arrays.copyOf(history, history.length * 2);
         }
+        history[historyLength++] = key;
     }
 
     /**
@@ -185,6 +465,10 @@ public class ChessGame
      */
     public boolean isInCheckmate(TeamColor teamColor)
     {
+        if(teamColor == teamToMove)
+        {
+            return getStatus() == GameStatus.CHECKMATE;
+        }
         return isInCheck(teamColor) && noTeamMoves(teamColor);
     }
 
@@ -197,6 +481,10 @@ public class ChessGame
      */
     public boolean isInStalemate(TeamColor teamColor)
     {
+        if(teamColor == teamToMove)
+        {
+            return getStatus() == GameStatus.STALEMATE;
+        }
         return !isInCheck(teamColor) && noTeamMoves(teamColor);
     }
 
@@ -218,30 +506,14 @@ public class ChessGame
      */
     private boolean inCheck(TeamColor teamColor, ChessBoard board)
     {
-        for(ChessPieceAndPosition piece : board.getTeamPieces(otherTeam(teamColor)))
-        {
-            for(ChessMove move : piece.piece().pieceCaptures(board, piece.position))
-            {
-                if(board.getPiece(move.getEndPosition()).getPieceType() == ChessPiece.PieceType.KING)
-                {
-                    return true;
-                }
-            }
-        }
+        long king = board.getPieces(teamColor, ChessPiece.PieceType.KING);
 
-        return false;
+        return king != Bitboard.EMPTY && board.isSquareAttacked(Bitboard.first(king), otherTeam(teamColor));
     }
 
     private boolean noTeamMoves(TeamColor color)
     {
-        for(ChessPieceAndPosition piece : board.getTeamPieces(color))
-        {
-            if(!validMoves(piece.position).isEmpty())
-            {
-                return false;
-            }
-        }
-        return true;
+        return MoveGenerator.legalMoves(board, color, new int[MoveGenerator.MAX_MOVES]) == 0;
     }
 
 	public record ChessPieceAndPosition(ChessPiece piece, ChessPosition position) {}
@@ -254,6 +526,23 @@ public class ChessGame
         WHITE, BLACK
     }
 
+    /**
+     * State of the game from the point of view of the team whose turn it is
+     */
+    public enum GameStatus
+    {
+        IN_PROGRESS, CHECK, CHECKMATE, STALEMATE,
+        /**
+         * The same position has occurred three times with the same side to move
+         */
+        THREEFOLD_REPETITION,
+        /**
+         * 50 moves by each side without a capture or pawn move
+         */
+        FIFTY_MOVE_RULE,
+        INSUFFICIENT_MATERIAL
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -268,6 +557,6 @@ public class ChessGame
     @Override
     public int hashCode()
     {
-        return Objects.hash(teamToMove, board);
+        return 31 * teamToMove.ordinal() + board.hashCode();
     }
 }
@@ -48,6 +48,22 @@ public class ChessMove
 		return promotion;
 	}
 
+	/**
+	 * @return This move encoded as described in {@link PackedMove}, without flags.
+	 */
+	public int pack()
+	{
+		return PackedMove.of(Bitboard.square(start), Bitboard.square(end), promotion);
+	}
+
+	/**
+	 * @param move Move encoded as described in {@link PackedMove}; flags are ignored
+	 */
+	public static ChessMove fromPacked(int move)
+	{
+		return PackedMove.toChessMove(move);
+	}
+
 	@Override
 	public boolean equals(Object o)
 	{
@@ -62,7 +78,7 @@ public class ChessMove
 	@Override
 	public int hashCode()
 	{
-		return Objects.hash(start, end, promotion);
+		return pack();
 	}
 
 	@Override
@@ -1,6 +1,6 @@
 package chess;
 
-import chess.calculators.*;
+import chess.calculators.MoveCalculator;
 
 import java.util.Collection;
 import java.util.Objects;
@@ -13,17 +13,31 @@ import java.util.Objects;
  */
 public class ChessPiece
 {
+	//Indexed by (color * 6 + type) * 2 + hasMoved
+	private static final ChessPiece[] PIECES = new ChessPiece[24];
+
+	static
+	{
+		for(ChessGame.TeamColor color : ChessGame.TeamColor.values())
+		{
+			for(PieceType type : PieceType.values())
+			{
+				int index = (color.ordinal() * 6 + type.ordinal()) * 2;
+				PIECES[index] = new ChessPiece(color, type, false);
+				PIECES[index + 1] = new ChessPiece(color, type, true);
+			}
+		}
+	}
+
 	private final ChessGame.TeamColor color;
 	private final ChessPiece.PieceType type;
 	private final boolean hasMoved;
-	private transient MoveCalculator calculator;
 
 	public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type)
 	{
 		color = pieceColor;
 		this.type = type;
 		this.hasMoved = false;
-		makeCalculator();
 	}
 
 	public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type, boolean moved)
@@ -31,7 +45,6 @@ public class ChessPiece
 		color = pieceColor;
 		this.type = type;
 		this.hasMoved = moved;
-		makeCalculator();
 	}
 
 	public ChessPiece(ChessPiece p)
@@ -39,7 +52,20 @@ public class ChessPiece
 		this.color = p.getTeamColor();
 		this.type = p.getPieceType();
 		this.hasMoved = p.getHasMoved();
-		makeCalculator();
+	}
+
+	/**
+	 * Shared, preallocated instance of a piece. Pieces are immutable, so these can be placed on any number of
+	 * boards; prefer them to the constructors on hot paths.
+	 */
+	public static ChessPiece of(ChessGame.TeamColor color, PieceType type, boolean hasMoved)
+	{
+		return PIECES[(color.ordinal() * 6 + type.ordinal()) * 2 + (hasMoved ? 1 : 0)];
+	}
+
+	public static ChessPiece of(ChessGame.TeamColor color, PieceType type)
+	{
+		return of(color, type, false);
 	}
 
 	/**
@@ -72,17 +98,13 @@ public class ChessPiece
 	 */
 	public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition)
 	{
-		if(calculator == null)
-		{
-			makeCalculator();
-		}
-		return  calculator.pieceMoves(board, myPosition);
+		return MoveCalculator.forType(type).pieceMoves(board, myPosition);
 	}
 
 
 	public Collection<ChessMove> pieceCaptures(ChessBoard board, ChessPosition position)
 	{
-		return calculator.checkCaptures(board, position);
+		return MoveCalculator.forType(type).checkCaptures(board, position);
 	}
 
 	/**
@@ -153,17 +175,4 @@ public class ChessPiece
 
 		return output;
 	}
-
-	private void makeCalculator()
-	{
-		switch(type)
-		{
-			case KING -> calculator = new KingMoveCalculator();
-			case QUEEN -> calculator = new QueenMoveCalculator();
-			case BISHOP -> calculator = new BishopMoveCalculator();
-			case KNIGHT -> calculator = new KnightMoveCalculator();
-			case ROOK -> calculator = new RookMoveCalculator();
-			case PAWN -> calculator = new PawnMoveCalculator();
-		}
-	}
 }
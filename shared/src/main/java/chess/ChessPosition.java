@@ -10,6 +10,16 @@ import java.util.Objects;
  */
 public class ChessPosition
 {
+	private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+	static
+	{
+		for(int square = 0; square < 64; square++)
+		{
+			POSITIONS[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+		}
+	}
+
 	private final int row, col;
 
 	public ChessPosition(int row, int col)
@@ -20,6 +30,29 @@ public class ChessPosition
 		this.col = col;
 	}
 
+	/**
+	 * Shared, preallocated instance of a position; prefer this to the constructor on hot paths.
+	 *
+	 * @param row 1-8, with 1 being the bottom row
+	 * @param col 1-8, with 1 being the left column
+	 */
+	public static ChessPosition of(int row, int col)
+	{
+		if(((row - 1) | (col - 1)) >>> 3 != 0)
+		{
+			throw new RuntimeException("Invalid position: (" + row + ", " + col + ") row & column must be between 1-8 (inclusive)");
+		}
+		return POSITIONS[(row - 1) * 8 + (col - 1)];
+	}
+
+	/**
+	 * @param square 0-63 square index, see {@link Bitboard#square(int, int)}
+	 */
+	public static ChessPosition of(int square)
+	{
+		return POSITIONS[square];
+	}
+
 	/**
 	 * @return which row this position is in
 	 * 1 codes for the bottom row
@@ -54,7 +87,7 @@ public class ChessPosition
 	 */
 	public ChessPosition offset(int rowOffset, int colOffset)
 	{
-		return new ChessPosition(this.row + rowOffset, this.col + colOffset);
+		return of(this.row + rowOffset, this.col + colOffset);
 	}
 
 	@Override
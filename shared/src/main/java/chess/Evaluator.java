@@ -0,0 +1,13 @@
+package chess;
+
+/**
+ * Static evaluation of a position, used where a search stops looking further ahead. Implementations may keep state
+ * about the board they last evaluated, so each searching thread needs its own instance.
+ */
+public interface Evaluator
+{
+	/**
+	 * @return Score in centipawns from the point of view of the side to move; positive is good for that side
+	 */
+	int evaluate(ChessBoard board, ChessGame.TeamColor toMove);
+}
@@ -0,0 +1,290 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, e.g. the starting position
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}. The six space separated fields are the piece
+ * placement from row 8 down, the side to move, castling rights, en passant target square, halfmove clock and
+ * fullmove number. The two clocks may be left off, in which case they default to 0 and 1.
+ */
+final class Fen
+{
+	private Fen() {}
+
+	static String[] fields(String fen)
+	{
+		String[] fields = fen.trim().split("\\s+");
+
+		if(fields.length != 4 && fields.length != 6)
+		{
+			throw new IllegalArgumentException("FEN must have 4 or 6 fields: " + fen);
+		}
+		return fields;
+	}
+
+	/**
+	 * Builds the board from the placement, castling & en passant fields.
+	 */
+	static ChessBoard board(String[] fields)
+	{
+		ChessBoard board = new ChessBoard();
+		String[] rows = fields[0].split("/");
+
+		if(rows.length != 8)
+		{
+			throw new IllegalArgumentException("FEN placement must have 8 rows: " + fields[0]);
+		}
+
+		for(int row = 8; row >= 1; row--)
+		{
+			int col = 1;
+
+			for(char c : rows[8 - row].toCharArray())
+			{
+				if(c >= '1' && c <= '8')
+				{
+					col += c - '0';
+				}
+				else if(col <= 8)
+				{
+					board.addPiece(ChessPosition.of(row, col++), ChessPiece.of(color(c), type(c), hasMoved(c, row)));
+				}
+				else
+				{
+					throw new IllegalArgumentException("FEN row " + row + " has more than 8 columns: " + rows[8 - row]);
+				}
+			}
+
+			if(col != 9)
+			{
+				throw new IllegalArgumentException("FEN row " + row + " doesn't cover 8 columns: " + rows[8 - row]);
+			}
+		}
+
+		castling(board, fields[2]);
+		board.setEnPassantSquare(fields[3].equals("-") ? ChessBoard.NO_EN_PASSANT
+				: enPassant(board, fields[3], sideToMove(fields)));
+
+		return board;
+	}
+
+	static ChessGame.TeamColor sideToMove(String[] fields)
+	{
+		return switch(fields[1])
+		{
+			case "w" -> ChessGame.TeamColor.WHITE;
+			case "b" -> ChessGame.TeamColor.BLACK;
+			default -> throw new IllegalArgumentException("FEN side to move must be w or b: " + fields[1]);
+		};
+	}
+
+	/**
+	 * @param index   4 for the halfmove clock, 5 for the fullmove number
+	 * @param missing The clock's value when it's left off, which is also the lowest it can be
+	 */
+	static int clock(String[] fields, int index, int missing)
+	{
+		if(fields.length <= index)
+		{
+			return missing;
+		}
+
+		int clock;
+		try
+		{
+			clock = Integer.parseInt(fields[index]);
+		}
+		catch(NumberFormatException e)
+		{
+			throw new IllegalArgumentException("FEN clock isn't a number: " + fields[index]);
+		}
+
+		if(clock < missing)
+		{
+			throw new IllegalArgumentException("FEN clock can't be less than " + missing + ": " + fields[index]);
+		}
+		return clock;
+	}
+
+	static String write(ChessBoard board, ChessGame.TeamColor toMove, int halfmoveClock, int fullmoveNumber)
+	{
+		StringBuilder fen = new StringBuilder(90);
+
+		for(int row = 8; row >= 1; row--)
+		{
+			int empty = 0;
+
+			for(int col = 1; col <= 8; col++)
+			{
+				ChessPiece piece = board.getPiece(Bitboard.square(row, col));
+
+				if(piece == null)
+				{
+					empty++;
+					continue;
+				}
+				if(empty > 0)
+				{
+					fen.append(empty);
+					empty = 0;
+				}
+				fen.append(piece);
+			}
+
+			if(empty > 0)
+			{
+				fen.append(empty);
+			}
+			if(row > 1)
+			{
+				fen.append('/');
+			}
+		}
+
+		fen.append(toMove == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+		int rights = board.getCastlingRights();
+		if(rights == 0)
+		{
+			fen.append('-');
+		}
+		else
+		{
+			fen.append((rights & ChessBoard.WHITE_KINGSIDE) != 0 ? "K" : "")
+					.append((rights & ChessBoard.WHITE_QUEENSIDE) != 0 ? "Q" : "")
+					.append((rights & ChessBoard.BLACK_KINGSIDE) != 0 ? "k" : "")
+					.append((rights & ChessBoard.BLACK_QUEENSIDE) != 0 ? "q" : "");
+		}
+
+		int enPassant = board.getEnPassantSquare();
+		fen.append(' ').append(enPassant == ChessBoard.NO_EN_PASSANT ? "-" : squareName(enPassant));
+
+		return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+	}
+
+	/**
+	 * Sets the board's castling rights, and marks the kings & rooks that keep a right as unmoved so the hasMoved
+	 * flags agree with them.
+	 */
+	private static void castling(ChessBoard board, String castling)
+	{
+		if(!castling.matches("-|K?Q?k?q?"))
+		{
+			throw new IllegalArgumentException("Invalid FEN castling rights: " + castling);
+		}
+
+		unmoved(board, castling, 'K', 'Q', 1, ChessGame.TeamColor.WHITE);
+		unmoved(board, castling, 'k', 'q', 8, ChessGame.TeamColor.BLACK);
+
+		int rights = 0;
+		rights |= castling.indexOf('K') >= 0 ? ChessBoard.WHITE_KINGSIDE : 0;
+		rights |= castling.indexOf('Q') >= 0 ? ChessBoard.WHITE_QUEENSIDE : 0;
+		rights |= castling.indexOf('k') >= 0 ? ChessBoard.BLACK_KINGSIDE : 0;
+		rights |= castling.indexOf('q') >= 0 ? ChessBoard.BLACK_QUEENSIDE : 0;
+		board.setCastlingRights(rights);
+	}
+
+	private static void unmoved(ChessBoard board, String castling, char kingside, char queenside, int row,
+								ChessGame.TeamColor color)
+	{
+		boolean canKingside = castling.indexOf(kingside) >= 0;
+		boolean canQueenside = castling.indexOf(queenside) >= 0;
+
+		if(canKingside || canQueenside)
+		{
+			unmoved(board, Bitboard.square(row, 5), color, ChessPiece.PieceType.KING);
+		}
+		if(canKingside)
+		{
+			unmoved(board, Bitboard.square(row, 8), color, ChessPiece.PieceType.ROOK);
+		}
+		if(canQueenside)
+		{
+			unmoved(board, Bitboard.square(row, 1), color, ChessPiece.PieceType.ROOK);
+		}
+	}
+
+	private static void unmoved(ChessBoard board, int square, ChessGame.TeamColor color, ChessPiece.PieceType type)
+	{
+		ChessPiece piece = board.getPiece(square);
+
+		if(piece == null || piece.getTeamColor() != color || piece.getPieceType() != type)
+		{
+			throw new IllegalArgumentException("FEN castling right without a " + type + " on " + squareName(square));
+		}
+		board.addPiece(ChessPosition.of(square), ChessPiece.of(color, type, false));
+	}
+
+	/**
+	 * Checks that the en passant square is one a pawn of the side that just moved skipped over with a double move:
+	 * behind that pawn, on row 3 or 6, with both squares it crossed empty.
+	 */
+	private static int enPassant(ChessBoard board, String name, ChessGame.TeamColor toMove)
+	{
+		int square = square(name);
+		boolean whiteMoved = toMove == ChessGame.TeamColor.BLACK;
+		int row = (square >>> 3) + 1;
+		int pawnSquare = whiteMoved ? square + 8 : square - 8;
+		int startSquare = whiteMoved ? square - 8 : square + 8;
+		ChessPiece pawn = ChessPiece.of(whiteMoved ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK,
+				ChessPiece.PieceType.PAWN, true);
+
+		if(row != (whiteMoved ? 3 : 6))
+		{
+			throw new IllegalArgumentException("FEN en passant square must be on row " + (whiteMoved ? 3 : 6)
+					+ " with " + toMove + " to move: " + name);
+		}
+		if(!pawn.equals(board.getPiece(pawnSquare)) || board.getPiece(square) != null
+				|| board.getPiece(startSquare) != null)
+		{
+			throw new IllegalArgumentException("FEN en passant square " + name + " wasn't skipped by a pawn");
+		}
+		return square;
+	}
+
+	/**
+	 * Kings and rooks count as moved until a castling right says otherwise; pawns have moved once they leave their
+	 * starting row.
+	 */
+	private static boolean hasMoved(char c, int row)
+	{
+		return switch(Character.toLowerCase(c))
+		{
+			case 'k', 'r' -> true;
+			case 'p' -> row != (Character.isUpperCase(c) ? 2 : 7);
+			default -> false;
+		};
+	}
+
+	private static ChessGame.TeamColor color(char c)
+	{
+		return Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+	}
+
+	private static ChessPiece.PieceType type(char c)
+	{
+		return switch(Character.toLowerCase(c))
+		{
+			case 'k' -> ChessPiece.PieceType.KING;
+			case 'q' -> ChessPiece.PieceType.QUEEN;
+			case 'r' -> ChessPiece.PieceType.ROOK;
+			case 'b' -> ChessPiece.PieceType.BISHOP;
+			case 'n' -> ChessPiece.PieceType.KNIGHT;
+			case 'p' -> ChessPiece.PieceType.PAWN;
+			default -> throw new IllegalArgumentException("Invalid FEN piece: " + c);
+		};
+	}
+
+	private static int square(String name)
+	{
+		if(!name.matches("[a-h][1-8]"))
+		{
+			throw new IllegalArgumentException("Invalid FEN square: " + name);
+		}
+		return Bitboard.square(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+	}
+
+	static String squareName(int square)
+	{
+		return String.valueOf((char) ('a' + (square & 7))) + (char) ('1' + (square >>> 3));
+	}
+}
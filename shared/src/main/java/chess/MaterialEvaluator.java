@@ -0,0 +1,26 @@
+package chess;
+
+/**
+ * Counts material only, with fixed piece values. Useful as a baseline to compare other evaluators against.
+ */
+public class MaterialEvaluator implements Evaluator
+{
+	//Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+	private static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+	private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+	@Override
+	public int evaluate(ChessBoard board, ChessGame.TeamColor toMove)
+	{
+		int score = 0;
+
+		for(ChessPiece.PieceType type : TYPES)
+		{
+			int difference = Bitboard.count(board.getPieces(ChessGame.TeamColor.WHITE, type))
+					- Bitboard.count(board.getPieces(ChessGame.TeamColor.BLACK, type));
+			score += difference * PIECE_VALUES[type.ordinal()];
+		}
+
+		return toMove == ChessGame.TeamColor.WHITE ? score : -score;
+	}
+}
@@ -0,0 +1,189 @@
+package chess;
+
+import chess.calculators.MoveCalculator;
+
+/**
+ * Fully legal move generation. Checkers and pinned pieces are found once per call, and each piece's moves are
+ * filtered against them directly instead of being tried on the board. Only king moves and en passant, whose
+ * legality depends on more than the destination square, are checked against the attack map or played out.
+ */
+public final class MoveGenerator
+{
+	/**
+	 * Buffer size that fits the legal moves of any position (at most 218) plus the unfiltered moves of one more
+	 * piece, which are written past the legal ones before being filtered.
+	 */
+	public static final int MAX_MOVES = 256;
+
+	private MoveGenerator() {}
+
+	/**
+	 * Writes every legal move of the given team into the buffer.
+	 *
+	 * @param buffer Destination for the moves, at least {@link #MAX_MOVES} long; see {@link PackedMove}
+	 * @return Number of legal moves written to the buffer
+	 */
+	public static int legalMoves(ChessBoard board, ChessGame.TeamColor color, int[] buffer)
+	{
+		Constraints constraints = new Constraints(board, color);
+		long pieces = board.getTeamOccupancy(color);
+		int count = 0;
+
+		//In double check only the king can move
+		if(constraints.checkers != Bitboard.EMPTY && Bitboard.popFirst(constraints.checkers) != Bitboard.EMPTY)
+		{
+			pieces &= board.getPieces(color, ChessPiece.PieceType.KING);
+		}
+
+		while(pieces != Bitboard.EMPTY)
+		{
+			count = pieceMoves(board, Bitboard.first(pieces), constraints, buffer, count);
+			pieces = Bitboard.popFirst(pieces);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Writes the legal moves of the piece on the square into the buffer.
+	 *
+	 * @param square Square of the piece; must not be empty
+	 * @param buffer Destination for the moves, at least {@link MoveCalculator#MAX_PIECE_MOVES} long
+	 * @return Number of legal moves written to the buffer
+	 */
+	public static int legalMoves(ChessBoard board, int square, int[] buffer)
+	{
+		Constraints constraints = new Constraints(board, board.getPiece(square).getTeamColor());
+		return pieceMoves(board, square, constraints, buffer, 0);
+	}
+
+	private static int pieceMoves(ChessBoard board, int square, Constraints constraints, int[] buffer, int count)
+	{
+		ChessPiece piece = board.getPiece(square);
+		int end = MoveCalculator.forType(piece.getPieceType()).generate(board, square, buffer, count);
+
+		//Without a king on the board nothing can be pinned or in check
+		if(constraints.king == 64)
+		{
+			return end;
+		}
+
+		boolean isKing = square == constraints.king;
+		//A pinned piece may only move along the line through its king and the pinning piece
+		long allowed = (constraints.pinned & Bitboard.bit(square)) != Bitboard.EMPTY ?
+				constraints.checkMask & Bitboard.line(constraints.king, square) : constraints.checkMask;
+
+		for(int i = count; i < end; i++)
+		{
+			int move = buffer[i];
+			boolean legal;
+
+			if(isKing)
+			{
+				//Castling is only generated when the king's path is safe
+				legal = PackedMove.isCastle(move) || kingMoveIsSafe(board, move, constraints);
+			}
+			else if(PackedMove.isEnPassant(move))
+			{
+				legal = playOut(board, move, constraints);
+			}
+			else
+			{
+				legal = (Bitboard.bit(PackedMove.end(move)) & allowed) != Bitboard.EMPTY;
+			}
+
+			if(legal)
+			{
+				buffer[count++] = move;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * The king's own square is removed from the occupancy so it can't hide from a slider behind itself.
+	 */
+	private static boolean kingMoveIsSafe(ChessBoard board, int move, Constraints constraints)
+	{
+		long occupied = board.getOccupancy() ^ Bitboard.bit(constraints.king);
+		return board.attackersOf(PackedMove.end(move), constraints.enemy, occupied) == Bitboard.EMPTY;
+	}
+
+	/**
+	 * En passant removes two pieces from the king's surroundings at once, so it's simplest to make the move and look.
+	 */
+	private static boolean playOut(ChessBoard board, int move, Constraints constraints)
+	{
+		int undo = board.makeMove(move);
+		boolean legal = !board.isSquareAttacked(constraints.king, constraints.enemy);
+		board.unmakeMove(move, undo);
+
+		return legal;
+	}
+
+	/**
+	 * Checkers, pinned pieces and the squares that resolve a check for one side of a position.
+	 */
+	private static final class Constraints
+	{
+		private final int king;
+		private final ChessGame.TeamColor enemy;
+		private final long checkers;
+		private final long pinned;
+		//Destinations that resolve the current check: the checker and the squares between it and the king
+		private final long checkMask;
+
+		private Constraints(ChessBoard board, ChessGame.TeamColor color)
+		{
+			enemy = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+			king = Bitboard.first(board.getPieces(color, ChessPiece.PieceType.KING));
+
+			if(king == 64)
+			{
+				checkers = Bitboard.EMPTY;
+				pinned = Bitboard.EMPTY;
+				checkMask = ~Bitboard.EMPTY;
+				return;
+			}
+
+			long occupied = board.getOccupancy();
+			checkers = board.attackersOf(king, enemy, occupied);
+
+			if(checkers == Bitboard.EMPTY)
+			{
+				checkMask = ~Bitboard.EMPTY;
+			}
+			else if(Bitboard.popFirst(checkers) == Bitboard.EMPTY)
+			{
+				checkMask = checkers | Bitboard.between(king, Bitboard.first(checkers));
+			}
+			else
+			{
+				//Double check: no single move blocks or captures both checkers
+				checkMask = Bitboard.EMPTY;
+			}
+
+			//Enemy sliders that would attack the king if only enemy pieces blocked them
+			long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+			long enemies = board.getTeamOccupancy(enemy);
+			long snipers = (Bitboard.rookAttacks(king, enemies) & (board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+					| (Bitboard.bishopAttacks(king, enemies) & (board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+			long own = board.getTeamOccupancy(color);
+			long pins = Bitboard.EMPTY;
+
+			while(snipers != Bitboard.EMPTY)
+			{
+				long blockers = Bitboard.between(king, Bitboard.first(snipers)) & occupied;
+				snipers = Bitboard.popFirst(snipers);
+
+				if(blockers != Bitboard.EMPTY && Bitboard.popFirst(blockers) == Bitboard.EMPTY)
+				{
+					pins |= blockers & own;
+				}
+			}
+
+			pinned = pins;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package chess;
+
+/**
+ * Static helpers for moves packed into a single int, used by the move generators and the engine in place of
+ * {@link ChessMove} objects.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square (see {@link Bitboard#square(int, int)}), bits 12-14
+ * the promotion piece (0 for none, otherwise the PieceType ordinal + 1) and bits 15-17 the capture, castle and
+ * en passant flags. The low 15 bits identify the move; the flags are hints filled in by the generators and can
+ * always be recomputed from the board.
+ */
+public final class PackedMove
+{
+	public static final int NONE = 0;
+
+	public static final int CAPTURE = 1 << 15;
+	public static final int CASTLE = 1 << 16;
+	public static final int EN_PASSANT = 1 << 17;
+
+	/**
+	 * Masks out the flags so a generated move can be compared to one packed from a ChessMove.
+	 */
+	public static final int MOVE_MASK = 0x7FFF;
+
+	private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+	private PackedMove() {}
+
+	public static int of(int start, int end, ChessPiece.PieceType promotion)
+	{
+		return start | end << 6 | (promotion == null ? 0 : promotion.ordinal() + 1) << 12;
+	}
+
+	public static int of(int start, int end, ChessPiece.PieceType promotion, int flags)
+	{
+		return of(start, end, promotion) | flags;
+	}
+
+	public static int start(int move)
+	{
+		return move & 0x3F;
+	}
+
+	public static int end(int move)
+	{
+		return (move >>> 6) & 0x3F;
+	}
+
+	/**
+	 * @return Type of piece to promote a pawn to, or null if no promotion
+	 */
+	public static ChessPiece.PieceType promotion(int move)
+	{
+		int code = (move >>> 12) & 0x7;
+		return code == 0 ? null : TYPES[code - 1];
+	}
+
+	public static boolean isCapture(int move)
+	{
+		return (move & CAPTURE) != 0;
+	}
+
+	public static boolean isCastle(int move)
+	{
+		return (move & CASTLE) != 0;
+	}
+
+	public static boolean isEnPassant(int move)
+	{
+		return (move & EN_PASSANT) != 0;
+	}
+
+	/**
+	 * @return True if both moves have the same start, end & promotion, ignoring flags.
+	 */
+	public static boolean sameMove(int a, int b)
+	{
+		return ((a ^ b) & MOVE_MASK) == 0;
+	}
+
+	public static ChessMove toChessMove(int move)
+	{
+		return new ChessMove(ChessPosition.of(start(move)), ChessPosition.of(end(move)), promotion(move));
+	}
+
+	/**
+	 * @return The move in coordinate notation, e.g. "e2e4" or "a7a8q".
+	 */
+	public static String toString(int move)
+	{
+		StringBuilder output = new StringBuilder(5);
+		output.append(Fen.squareName(start(move))).append(Fen.squareName(end(move)));
+
+		ChessPiece.PieceType promotion = promotion(move);
+		if(promotion != null)
+		{
+			output.append(switch(promotion)
+			{
+				case QUEEN -> 'q';
+				case ROOK -> 'r';
+				case BISHOP -> 'b';
+				case KNIGHT -> 'n';
+				case KING -> 'k';
+				case PAWN -> 'p';
+			});
+		}
+
+		return output.toString();
+	}
+}
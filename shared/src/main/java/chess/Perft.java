@@ -0,0 +1,191 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Perft (performance test) counts the leaf nodes of the legal move tree to a fixed depth. Comparing the counts to
+ * published values checks the move generator, and timing them measures its speed.
+ * <p>
+ * Run as a standalone benchmark with {@code java -cp shared/target/classes chess.Perft [depth] [fen]}; without a
+ * FEN every position in {@link #STANDARD_POSITIONS} is searched.
+ */
+public class Perft
+{
+	/**
+	 * Well-known perft positions with their node counts at depths 1 and up.
+	 */
+	public static final List<PerftPosition> STANDARD_POSITIONS = List.of(
+		new PerftPosition("Starting position",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+				20, 400, 8_902, 197_281, 4_865_609, 119_060_324),
+		new PerftPosition("Kiwipete",
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				48, 2_039, 97_862, 4_085_603, 193_690_690, 8_031_647_685L),
+		new PerftPosition("Position 3",
+				"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+				14, 191, 2_812, 43_238, 674_624, 11_030_083),
+		new PerftPosition("Position 4",
+				"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+				6, 264, 9_467, 422_333, 15_833_292, 706_045_033),
+		new PerftPosition("Position 5",
+				"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+				44, 1_486, 62_379, 2_103_487, 89_941_194),
+		new PerftPosition("Position 6",
+				"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+				46, 2_079, 89_890, 3_894_594, 164_075_551, 6_923_051_137L)
+	);
+
+	private final ChessBoard board;
+	private ChessGame.TeamColor toMove;
+	private int[][] buffers = new int[0][];
+
+	/**
+	 * Works on a copy of the game's board, so the game itself is never modified.
+	 */
+	public Perft(ChessGame game)
+	{
+		this.board = new ChessBoard(game.getBoard());
+		this.toMove = game.getTeamTurn();
+	}
+
+	/**
+	 * Counts leaf nodes using bulk counting: at depth 1 the number of legal moves is returned without making them.
+	 */
+	public long perft(int depth)
+	{
+		return perft(depth, true);
+	}
+
+	/**
+	 * @param bulk Whether to count the moves at depth 1 instead of making each one
+	 * @return Number of leaf nodes of the legal move tree at the given depth
+	 */
+	public long perft(int depth, boolean bulk)
+	{
+		ensureBuffers(depth);
+		return search(depth, bulk);
+	}
+
+	/**
+	 * Splits the perft count by root move, which narrows a wrong count down to the move whose subtree is off.
+	 *
+	 * @return Node count below each legal root move, keyed by the move in coordinate notation (e.g. "e2e4")
+	 */
+	public Map<String, Long> divide(int depth)
+	{
+		ensureBuffers(depth);
+		Map<String, Long> counts = new LinkedHashMap<>();
+		int[] moves = buffers[depth - 1];
+		int count = MoveGenerator.legalMoves(board, toMove, moves);
+
+		for(int i = 0; i < count; i++)
+		{
+			long nodes = 1;
+			if(depth > 1)
+			{
+				int undo = makeMove(moves[i]);
+				nodes = search(depth - 1, true);
+				unmakeMove(moves[i], undo);
+			}
+			counts.put(PackedMove.toString(moves[i]), nodes);
+		}
+
+		return counts;
+	}
+
+	private long search(int depth, boolean bulk)
+	{
+		if(depth == 0)
+		{
+			return 1;
+		}
+
+		int[] moves = buffers[depth - 1];
+		int count = MoveGenerator.legalMoves(board, toMove, moves);
+
+		if(bulk && depth == 1)
+		{
+			return count;
+		}
+
+		long nodes = 0;
+		for(int i = 0; i < count; i++)
+		{
+			int undo = makeMove(moves[i]);
+			nodes += search(depth - 1, bulk);
+			unmakeMove(moves[i], undo);
+		}
+		return nodes;
+	}
+
+	private int makeMove(int move)
+	{
+		int undo = board.makeMove(move);
+		toMove = other(toMove);
+		return undo;
+	}
+
+	private void unmakeMove(int move, int undo)
+	{
+		toMove = other(toMove);
+		board.unmakeMove(move, undo);
+	}
+
+	private void ensureBuffers(int depth)
+	{
+		if(buffers.length < depth)
+		{
+			buffers = new int[depth][MoveGenerator.MAX_MOVES];
+		}
+	}
+
+	private static ChessGame.TeamColor other(ChessGame.TeamColor color)
+	{
+		return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+	}
+
+	public static void main(String[] args)
+	{
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+		if(args.length > 1)
+		{
+			String fen = String.join(" ", List.of(args).subList(1, args.length));
+			benchmark(new PerftPosition("Custom", fen), depth);
+		}
+		else
+		{
+			for(PerftPosition position : STANDARD_POSITIONS)
+			{
+				benchmark(position, Math.min(depth, position.counts().length));
+			}
+		}
+	}
+
+	private static void benchmark(PerftPosition position, int depth)
+	{
+		Perft perft = new Perft(ChessGame.fromFen(position.fen()));
+
+		long start = System.nanoTime();
+		long nodes = perft.perft(depth);
+		long elapsed = Math.max(System.nanoTime() - start, 1);
+
+		String expected = depth <= position.counts().length ?
+				(nodes == position.expected(depth) ? "ok" : "expected " + position.expected(depth)) : "unknown";
+		System.out.printf("%-18s depth %d: %,15d nodes  %8.2f s  %,12.0f nodes/s  (%s)%n", position.name(), depth,
+				nodes, elapsed / 1e9, nodes * 1e9 / elapsed, expected);
+	}
+
+	/**
+	 * @param counts Expected node counts, starting at depth 1
+	 */
+	public record PerftPosition(String name, String fen, long... counts)
+	{
+		public long expected(int depth)
+		{
+			return counts[depth - 1];
+		}
+	}
+}
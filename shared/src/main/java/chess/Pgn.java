@@ -0,0 +1,195 @@
+package chess;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the moves of games in Portable Game Notation. Tag pairs, comments, variations, numeric annotation glyphs and
+ * move numbers are skipped; what's left are the moves in Standard Algebraic Notation, e.g. {@code Nbd7},
+ * {@code exd6}, {@code e8=Q+} or {@code O-O}, which are resolved against the legal moves of the position.
+ */
+public final class Pgn
+{
+	//Piece, origin file, origin rank, capture, destination, promotion
+	private static final Pattern SAN = Pattern.compile("([KQRBN])?([a-h])?([1-8])?x?([a-h][1-8])(?:=?([QRBN]))?");
+	private static final Pattern RESULT = Pattern.compile("1-0|0-1|1/2-1/2|\\*");
+
+	private Pgn() {}
+
+	/**
+	 * Streams the games of a PGN file one at a time, so files of any size can be read.
+	 *
+	 * @param games Receives the SAN moves of each game in order
+	 */
+	public static void readGames(Reader pgn, Consumer<List<String>> games) throws IOException
+	{
+		List<String> moves = new ArrayList<>();
+		StringBuilder token = new StringBuilder();
+		int variationDepth = 0;
+		int c;
+
+		while((c = pgn.read()) != -1)
+		{
+			if(!Character.isWhitespace(c) && "{};[().".indexOf(c) < 0)
+			{
+				token.append((char) c);
+				continue;
+			}
+
+			endToken(moves, token, variationDepth, games);
+
+			if(c == '{')
+			{
+				//Comments don't nest
+				while(c != -1 && c != '}')
+				{
+					c = pgn.read();
+				}
+			}
+			else if(c == ';' || (c == '[' && variationDepth == 0))
+			{
+				//Line comments and tag pairs run to the end of the line
+				while(c != -1 && c != '\n')
+				{
+					c = pgn.read();
+				}
+			}
+			else if(c == '(')
+			{
+				variationDepth++;
+			}
+			else if(c == ')')
+			{
+				variationDepth = Math.max(0, variationDepth - 1);
+			}
+		}
+
+		endToken(moves, token, variationDepth, games);
+		//The last game may be missing its result
+		if(!moves.isEmpty())
+		{
+			games.accept(List.copyOf(moves));
+		}
+	}
+
+	/**
+	 * Finishes the current token: a result ends the game, a move is added to it and anything else is dropped.
+	 */
+	private static void endToken(List<String> moves, StringBuilder token, int variationDepth, Consumer<List<String>> games)
+	{
+		if(token.isEmpty())
+		{
+			return;
+		}
+
+		String text = token.toString();
+		token.setLength(0);
+
+		if(variationDepth > 0 || text.startsWith("$"))
+		{
+			return;
+		}
+		if(RESULT.matcher(text).matches())
+		{
+			if(!moves.isEmpty())
+			{
+				games.accept(List.copyOf(moves));
+				moves.clear();
+			}
+			return;
+		}
+		//Move numbers; castling may be written with zeros
+		if(Character.isDigit(text.charAt(0)) && !text.startsWith("0-0"))
+		{
+			return;
+		}
+
+		moves.add(text);
+	}
+
+	/**
+	 * Finds the legal move a SAN string describes in the game's current position.
+	 *
+	 * @throws IllegalArgumentException if the string isn't SAN, or doesn't describe exactly one legal move
+	 */
+	public static ChessMove parseSan(ChessGame game, String san)
+	{
+		//Check, mate & annotation marks don't identify the move
+		String move = san.replaceAll("[+#!?]", "");
+		ChessBoard board = game.getBoard();
+		int homeRow = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 1 : 8;
+
+		if(move.equals("O-O") || move.equals("0-0"))
+		{
+			return castle(game, ChessPosition.of(homeRow, 5), ChessPosition.of(homeRow, 7), san);
+		}
+		if(move.equals("O-O-O") || move.equals("0-0-0"))
+		{
+			return castle(game, ChessPosition.of(homeRow, 5), ChessPosition.of(homeRow, 3), san);
+		}
+
+		Matcher matcher = SAN.matcher(move);
+		if(!matcher.matches())
+		{
+			throw new IllegalArgumentException("Not a SAN move: " + san);
+		}
+
+		ChessPiece.PieceType type = matcher.group(1) == null ? ChessPiece.PieceType.PAWN : pieceType(matcher.group(1).charAt(0));
+		ChessPosition end = ChessPosition.of(matcher.group(4).charAt(1) - '0', matcher.group(4).charAt(0) - 'a' + 1);
+		ChessPiece.PieceType promotion = matcher.group(5) == null ? null : pieceType(matcher.group(5).charAt(0));
+		ChessMove found = null;
+
+		for(ChessMove legal : game.legalMoves())
+		{
+			ChessPosition start = legal.getStartPosition();
+
+			if(!legal.getEndPosition().equals(end) || board.getPiece(start).getPieceType() != type
+					|| legal.getPromotionPiece() != promotion
+					|| (matcher.group(2) != null && start.getColumn() != matcher.group(2).charAt(0) - 'a' + 1)
+					|| (matcher.group(3) != null && start.getRow() != matcher.group(3).charAt(0) - '0'))
+			{
+				continue;
+			}
+			if(found != null)
+			{
+				throw new IllegalArgumentException("Ambiguous SAN move: " + san);
+			}
+			found = legal;
+		}
+
+		if(found == null)
+		{
+			throw new IllegalArgumentException("Illegal SAN move: " + san);
+		}
+		return found;
+	}
+
+	private static ChessMove castle(ChessGame game, ChessPosition start, ChessPosition end, String san)
+	{
+		ChessMove castle = new ChessMove(start, end, null);
+
+		if(!game.legalMoves().contains(castle))
+		{
+			throw new IllegalArgumentException("Illegal SAN move: " + san);
+		}
+		return castle;
+	}
+
+	private static ChessPiece.PieceType pieceType(char letter)
+	{
+		return switch(letter)
+		{
+			case 'K' -> ChessPiece.PieceType.KING;
+			case 'Q' -> ChessPiece.PieceType.QUEEN;
+			case 'R' -> ChessPiece.PieceType.ROOK;
+			case 'B' -> ChessPiece.PieceType.BISHOP;
+			case 'N' -> ChessPiece.PieceType.KNIGHT;
+			default -> throw new IllegalArgumentException("Invalid SAN piece: " + letter);
+		};
+	}
+}
@@ -0,0 +1,344 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Perfect play for endings with few pieces, looked up in tables generated by {@link TablebaseGenerator}.
+ * <p>
+ * Each table covers one material balance: a king and one other piece against a lone king. It holds a byte per
+ * position with the distance to mate (DTM) for the side to move, in blocks that are compressed separately. The
+ * files are memory-mapped, and recently used blocks are kept decompressed in a shared least-recently-used cache, so
+ * probes near each other in a game rarely decompress anything. Probes are safe from any number of threads.
+ * <p>
+ * Table file layout, big-endian: the magic number {@code CHESSTB1}, the PieceType ordinal of the extra piece, the
+ * number of positions, positions per block and number of blocks (4 bytes each), the file offset of each block plus
+ * one for the end of the last block (8 bytes each), then the Deflate-compressed blocks.
+ */
+public class Tablebase
+{
+	static final long MAGIC = 0x4348_4553_5354_4231L;
+	static final String EXTENSION = ".ctb";
+	static final int HEADER_BYTES = 24;
+	//Side to move, strong king, weak king, extra piece
+	static final int POSITIONS = 2 * 64 * 64 * 64;
+
+	/**
+	 * Outcome for the side to move.
+	 */
+	public enum Outcome
+	{
+		WIN, DRAW, LOSS
+	}
+
+	/**
+	 * @param plies Plies until mate with best play from both sides; 0 for a draw or a side that is already mated
+	 */
+	public record Result(Outcome outcome, int plies) {}
+
+	private static final Result DRAW = new Result(Outcome.DRAW, 0);
+
+	private final Map<ChessPiece.PieceType, Table> tables = new EnumMap<>(ChessPiece.PieceType.class);
+	private final BlockCache cache;
+
+	/**
+	 * @param cacheBlocks How many decompressed blocks to keep
+	 */
+	private Tablebase(int cacheBlocks)
+	{
+		this.cache = new BlockCache(cacheBlocks);
+	}
+
+	/**
+	 * Maps every table file in the directory.
+	 *
+	 * @param cacheBlocks How many decompressed blocks to keep, across all tables
+	 * @throws IOException if a table can't be read or is malformed
+	 */
+	public static Tablebase open(Path directory, int cacheBlocks) throws IOException
+	{
+		if(cacheBlocks < 1)
+		{
+			throw new IllegalArgumentException("The tablebase cache needs at least 1 block");
+		}
+
+		Tablebase tablebase = new Tablebase(cacheBlocks);
+
+		for(ChessPiece.PieceType type : ChessPiece.PieceType.values())
+		{
+			Path file = directory.resolve(tableName(type) + EXTENSION);
+
+			if(type != ChessPiece.PieceType.KING && Files.exists(file))
+			{
+				tablebase.tables.put(type, Table.map(file, type));
+			}
+		}
+
+		return tablebase;
+	}
+
+	/**
+	 * Looks the game's position up. A lone king against a lone king, bishop or knight is a draw without a table.
+	 *
+	 * @return The outcome with best play, or null if the position isn't covered by a table
+	 */
+	public Result probe(ChessGame game)
+	{
+		ChessBoard board = game.getBoard();
+		long occupied = board.getOccupancy();
+		int pieces = Bitboard.count(occupied);
+
+		if(pieces == 2)
+		{
+			return DRAW;
+		}
+		//Castling rights with so little material would mean a king and rook that haven't moved, which the tables ignore
+		if(pieces != 3 || board.getCastlingRights() != 0)
+		{
+			return null;
+		}
+
+		long kings = board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)
+				| board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+		int extraSquare = Bitboard.first(occupied & ~kings);
+		ChessPiece extra = board.getPiece(extraSquare);
+		ChessPiece.PieceType type = extra.getPieceType();
+
+		if(type == ChessPiece.PieceType.BISHOP || type == ChessPiece.PieceType.KNIGHT)
+		{
+			return DRAW;
+		}
+
+		Table table = tables.get(type);
+		if(table == null)
+		{
+			return null;
+		}
+
+		int value = table.value(cache, index(board, extra.getTeamColor(), game.getTeamTurn(), extraSquare));
+		return decode(value);
+	}
+
+	/**
+	 * Picks the move that wins fastest, or failing that draws, or failing that loses slowest.
+	 *
+	 * @return The best move, or null if the position isn't covered or has no legal moves
+	 */
+	public ChessMove bestMove(ChessGame game)
+	{
+		if(probe(game) == null)
+		{
+			return null;
+		}
+
+		ChessMove best = null;
+		int bestRank = Integer.MIN_VALUE;
+		ChessGame.TeamColor opponent = game.otherTeam(game.getTeamTurn());
+
+		for(ChessMove move : game.legalMoves())
+		{
+			ChessBoard after = new ChessBoard(game.getBoard());
+			after.makeMove(move);
+			ChessGame child = new ChessGame(after);
+			child.setTeamTurn(opponent);
+
+			//Every reply leads to a covered position: captures & promotions only ever reduce the material
+			Result result = probe(child);
+			int rank = result == null ? Integer.MIN_VALUE + 1 : rank(result);
+
+			if(rank > bestRank)
+			{
+				bestRank = rank;
+				best = move;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * @return How good the result is for the side that just moved into it; higher is better
+	 */
+	private static int rank(Result opponentResult)
+	{
+		return switch(opponentResult.outcome())
+		{
+			case LOSS -> 1000 - opponentResult.plies();
+			case DRAW -> 0;
+			case WIN -> -1000 + opponentResult.plies();
+		};
+	}
+
+	/**
+	 * Index of a position in its table, seen from the side with the extra piece. When that is black the board is
+	 * mirrored top to bottom and the colors swapped, so one table serves both.
+	 */
+	static int index(ChessBoard board, ChessGame.TeamColor strong, ChessGame.TeamColor toMove, int extraSquare)
+	{
+		ChessGame.TeamColor weak = strong == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+		int flip = strong == ChessGame.TeamColor.WHITE ? 0 : 56;
+		int strongKing = Bitboard.first(board.getPieces(strong, ChessPiece.PieceType.KING)) ^ flip;
+		int weakKing = Bitboard.first(board.getPieces(weak, ChessPiece.PieceType.KING)) ^ flip;
+
+		return index(toMove == strong, strongKing, weakKing, extraSquare ^ flip);
+	}
+
+	static int index(boolean strongToMove, int strongKing, int weakKing, int extraSquare)
+	{
+		return (((strongToMove ? 0 : 1) * 64 + strongKing) * 64 + weakKing) * 64 + extraSquare;
+	}
+
+	/**
+	 * Values are stored as a signed byte for the side to move: 0 for a draw, n > 0 for a win with mate in n plies
+	 * and -(n + 1) for a loss with mate in n plies.
+	 */
+	static Result decode(int value)
+	{
+		if(value > 0)
+		{
+			return new Result(Outcome.WIN, value);
+		}
+		return value == 0 ? DRAW : new Result(Outcome.LOSS, -value - 1);
+	}
+
+	static int encode(Result result)
+	{
+		return switch(result.outcome())
+		{
+			case WIN -> result.plies();
+			case DRAW -> 0;
+			case LOSS -> -result.plies() - 1;
+		};
+	}
+
+	static String tableName(ChessPiece.PieceType type)
+	{
+		return "K" + ChessPiece.of(ChessGame.TeamColor.WHITE, type) + "vK";
+	}
+
+	/**
+	 * One memory-mapped table file.
+	 */
+	private static final class Table
+	{
+		private final ChessPiece.PieceType type;
+		//Read with absolute gets only, so it can be shared between threads
+		private final ByteBuffer file;
+		private final int blockSize;
+		private final int blocks;
+
+		private Table(ChessPiece.PieceType type, ByteBuffer file, int blockSize, int blocks)
+		{
+			this.type = type;
+			this.file = file;
+			this.blockSize = blockSize;
+			this.blocks = blocks;
+		}
+
+		private static Table map(Path path, ChessPiece.PieceType type) throws IOException
+		{
+			try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+			{
+				if(channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE)
+				{
+					throw new IOException("Not a tablebase file: " + path);
+				}
+
+				ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				int blockSize = file.getInt(16);
+				int blocks = file.getInt(20);
+
+				if(file.getLong(0) != MAGIC || file.getInt(8) != type.ordinal() || file.getInt(12) != POSITIONS
+						|| blockSize < 1 || blocks != (POSITIONS + blockSize - 1) / blockSize
+						|| HEADER_BYTES + (blocks + 1L) * Long.BYTES > channel.size())
+				{
+					throw new IOException("Not a tablebase file: " + path);
+				}
+				return new Table(type, file, blockSize, blocks);
+			}
+		}
+
+		private int value(BlockCache cache, int index)
+		{
+			int block = index / blockSize;
+			return cache.get(this, block)[index % blockSize];
+		}
+
+		private byte[] decompress(int block)
+		{
+			int offset = (int) file.getLong(HEADER_BYTES + block * Long.BYTES);
+			int end = (int) file.getLong(HEADER_BYTES + (block + 1) * Long.BYTES);
+			byte[] values = new byte[Math.min(blockSize, POSITIONS - block * blockSize)];
+			Inflater inflater = new Inflater();
+
+			try
+			{
+				inflater.setInput(file.slice(offset, end - offset));
+				if(inflater.inflate(values) != values.length)
+				{
+					throw new IllegalStateException("Truncated tablebase block " + block + " of " + tableName(type));
+				}
+				return values;
+			}
+			catch(DataFormatException e)
+			{
+				throw new IllegalStateException("Corrupt tablebase block " + block + " of " + tableName(type), e);
+			}
+			finally
+			{
+				inflater.end();
+			}
+		}
+	}
+
+	/**
+	 * Least-recently-used cache of decompressed blocks from every table.
+	 */
+	private static final class BlockCache
+	{
+		private final Map<Long, byte[]> blocks;
+
+		private BlockCache(int capacity)
+		{
+			this.blocks = new LinkedHashMap<>(capacity * 2, 0.75f, true)
+			{
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest)
+				{
+					return size() > capacity;
+				}
+			};
+		}
+
+		private byte[] get(Table table, int block)
+		{
+			long key = (long) table.type.ordinal() << 32 | block;
+
+			synchronized(blocks)
+			{
+				byte[] values = blocks.get(key);
+				if(values != null)
+				{
+					return values;
+				}
+			}
+
+			//Decompress outside the lock; two threads may both decompress a block, but only one copy is kept
+			byte[] values = table.decompress(block);
+			synchronized(blocks)
+			{
+				byte[] raced = blocks.putIfAbsent(key, values);
+				return raced == null ? values : raced;
+			}
+		}
+	}
+}
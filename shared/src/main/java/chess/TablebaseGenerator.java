@@ -0,0 +1,328 @@
+package chess;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Builds the {@link Tablebase} tables for a king and queen, rook or pawn against a lone king.
+ * <p>
+ * Every position of a table is set up once to collect its legal moves, then the distances to mate are solved by
+ * retrograde passes: pass n marks the positions that win in n plies (n odd: some move reaches a position lost in
+ * n - 1) or lose in n plies (n even: every move reaches a position won in at most n - 1, one of them in exactly n - 1),
+ * until passes stop finding any. Whatever is left can't be forced either way and is a draw. Pawn promotions are looked
+ * up in the queen and rook tables, so those have to be generated first.
+ * <p>
+ * Usage: {@code TablebaseGenerator <directory>}, which writes KQvK, KRvK and KPvK to the directory.
+ */
+public class TablebaseGenerator
+{
+	public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	private static final int UNKNOWN = Integer.MIN_VALUE;
+	private static final int ILLEGAL = Integer.MIN_VALUE + 1;
+	//Children from POSITIONS up are values fixed by another table, offset so they are never negative
+	private static final int FIXED = Tablebase.POSITIONS + 128;
+
+	private TablebaseGenerator() {}
+
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length != 1)
+		{
+			System.err.println("Usage: TablebaseGenerator <directory>");
+			System.exit(2);
+		}
+
+		Path directory = Path.of(args[0]);
+		Files.createDirectories(directory);
+
+		for(ChessPiece.PieceType type : new ChessPiece.PieceType[] {ChessPiece.PieceType.QUEEN,
+				ChessPiece.PieceType.ROOK, ChessPiece.PieceType.PAWN})
+		{
+			long start = System.currentTimeMillis();
+			Path file = generate(directory, type, DEFAULT_BLOCK_SIZE);
+			System.out.printf("%s: %d bytes in %d ms%n", file, Files.size(file), System.currentTimeMillis() - start);
+		}
+	}
+
+	/**
+	 * Solves and writes the table for a king and the given piece against a lone king.
+	 *
+	 * @param blockSize Positions per compressed block; smaller blocks are quicker to probe, larger ones compress better
+	 * @return The table file
+	 * @throws IllegalStateException if a pawn table is asked for before the queen and rook tables exist
+	 */
+	public static Path generate(Path directory, ChessPiece.PieceType type, int blockSize) throws IOException
+	{
+		if(type == ChessPiece.PieceType.KING)
+		{
+			throw new IllegalArgumentException("A table needs a piece besides the kings");
+		}
+
+		Tablebase promotions = type == ChessPiece.PieceType.PAWN ? Tablebase.open(directory, 64) : null;
+		byte[] values = solve(type, promotions);
+		Path file = directory.resolve(Tablebase.tableName(type) + Tablebase.EXTENSION);
+
+		try(OutputStream out = Files.newOutputStream(file))
+		{
+			write(out, type, values, blockSize);
+		}
+		return file;
+	}
+
+	static byte[] solve(ChessPiece.PieceType type, Tablebase promotions)
+	{
+		int[] values = new int[Tablebase.POSITIONS];
+		int[] childStart = new int[Tablebase.POSITIONS + 1];
+		int[] children = new int[Tablebase.POSITIONS * 8];
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int childCount = 0;
+		int maxFixedPlies = 0;
+
+		for(int index = 0; index < Tablebase.POSITIONS; index++)
+		{
+			childStart[index] = childCount;
+			ChessBoard board = setUp(type, index);
+
+			if(board == null)
+			{
+				values[index] = ILLEGAL;
+				continue;
+			}
+
+			ChessGame.TeamColor mover = index < Tablebase.POSITIONS / 2 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+			ChessGame.TeamColor opponent = mover == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+			int moveCount = MoveGenerator.legalMoves(board, mover, moves);
+
+			if(moveCount == 0)
+			{
+				int king = Bitboard.first(board.getPieces(mover, ChessPiece.PieceType.KING));
+				boolean mated = board.isSquareAttacked(king, opponent);
+				values[index] = mated ? Tablebase.encode(new Tablebase.Result(Tablebase.Outcome.LOSS, 0)) : 0;
+				continue;
+			}
+
+			if(childCount + moveCount > children.length)
+			{
+				children = Arrays.copyOf(children, children.length * 3 / 2);
+			}
+
+			for(int i = 0; i < moveCount; i++)
+			{
+				int undo = board.makeMove(moves[i]);
+				int child = child(board, type, opponent, promotions);
+				board.unmakeMove(moves[i], undo);
+
+				if(child >= Tablebase.POSITIONS)
+				{
+					maxFixedPlies = Math.max(maxFixedPlies, Tablebase.decode(child - FIXED).plies());
+				}
+				children[childCount++] = child;
+			}
+			values[index] = UNKNOWN;
+		}
+		childStart[Tablebase.POSITIONS] = childCount;
+
+		int quietPasses = 0;
+		for(int plies = 1; quietPasses < 2 || plies <= maxFixedPlies + 1; plies++)
+		{
+			if(plies > Byte.MAX_VALUE - 1)
+			{
+				throw new IllegalStateException("Distance to mate doesn't fit in a byte");
+			}
+
+			boolean changed = false;
+			for(int index = 0; index < Tablebase.POSITIONS; index++)
+			{
+				if(values[index] != UNKNOWN)
+				{
+					continue;
+				}
+
+				int value = plies % 2 == 1 ? win(values, children, childStart[index], childStart[index + 1], plies)
+						: loss(values, children, childStart[index], childStart[index + 1], plies);
+				if(value != UNKNOWN)
+				{
+					values[index] = value;
+					changed = true;
+				}
+			}
+			quietPasses = changed ? 0 : quietPasses + 1;
+		}
+
+		byte[] table = new byte[Tablebase.POSITIONS];
+		for(int index = 0; index < table.length; index++)
+		{
+			//Illegal positions are never probed, and unresolved ones are draws
+			table[index] = values[index] == UNKNOWN || values[index] == ILLEGAL ? 0 : (byte) values[index];
+		}
+		return table;
+	}
+
+	/**
+	 * Sets up the position at an index, with white as the side with the extra piece.
+	 *
+	 * @return The board, or null if the index isn't a legal position
+	 */
+	private static ChessBoard setUp(ChessPiece.PieceType type, int index)
+	{
+		int extra = index & 63;
+		int weakKing = (index >> 6) & 63;
+		int strongKing = (index >> 12) & 63;
+		boolean strongToMove = index < Tablebase.POSITIONS / 2;
+
+		if(strongKing == weakKing || extra == strongKing || extra == weakKing
+				|| (type == ChessPiece.PieceType.PAWN && (extra < 8 || extra >= 56)))
+		{
+			return null;
+		}
+
+		ChessBoard board = new ChessBoard();
+		//Pieces that have moved, so no castling rights are derived for them
+		board.addPiece(position(strongKing), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING, true));
+		board.addPiece(position(weakKing), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING, true));
+		board.addPiece(position(extra), ChessPiece.of(ChessGame.TeamColor.WHITE, type, true));
+		board.setCastlingRights(0);
+
+		//The side that just moved can't have left its king in check
+		int waitingKing = strongToMove ? weakKing : strongKing;
+		ChessGame.TeamColor mover = strongToMove ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+		return board.isSquareAttacked(waitingKing, mover) ? null : board;
+	}
+
+	/**
+	 * @return The index of the position after a move, or FIXED plus the encoded value of a position in another table
+	 */
+	private static int child(ChessBoard board, ChessPiece.PieceType type, ChessGame.TeamColor toMove, Tablebase promotions)
+	{
+		long kings = board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)
+				| board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+		long others = board.getOccupancy() & ~kings;
+
+		//The extra piece was captured
+		if(others == 0)
+		{
+			return FIXED;
+		}
+
+		int square = Bitboard.first(others);
+		if(board.getPiece(square).getPieceType() == type)
+		{
+			return Tablebase.index(board, ChessGame.TeamColor.WHITE, toMove, square);
+		}
+
+		ChessGame promoted = new ChessGame(board);
+		promoted.setTeamTurn(toMove);
+		Tablebase.Result result = promotions.probe(promoted);
+
+		if(result == null)
+		{
+			throw new IllegalStateException("Generate the queen and rook tables before the pawn table");
+		}
+		return FIXED + Tablebase.encode(result);
+	}
+
+	/**
+	 * @return The value of a win in the given plies, if some move reaches a position the opponent loses a ply sooner
+	 */
+	private static int win(int[] values, int[] children, int from, int to, int plies)
+	{
+		int target = Tablebase.encode(new Tablebase.Result(Tablebase.Outcome.LOSS, plies - 1));
+
+		for(int i = from; i < to; i++)
+		{
+			if(childValue(values, children[i]) == target)
+			{
+				return plies;
+			}
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * @return The value of a loss in the given plies, if every move reaches a position the opponent wins and the
+	 * slowest of those wins takes one ply less
+	 */
+	private static int loss(int[] values, int[] children, int from, int to, int plies)
+	{
+		int slowest = 0;
+
+		for(int i = from; i < to; i++)
+		{
+			int value = childValue(values, children[i]);
+
+			if(value == UNKNOWN || value <= 0)
+			{
+				return UNKNOWN;
+			}
+			slowest = Math.max(slowest, value);
+		}
+		return slowest == plies - 1 ? Tablebase.encode(new Tablebase.Result(Tablebase.Outcome.LOSS, plies)) : UNKNOWN;
+	}
+
+	private static int childValue(int[] values, int child)
+	{
+		return child >= Tablebase.POSITIONS ? child - FIXED : values[child];
+	}
+
+	static void write(OutputStream stream, ChessPiece.PieceType type, byte[] values, int blockSize) throws IOException
+	{
+		if(blockSize < 1)
+		{
+			throw new IllegalArgumentException("A block needs at least 1 position");
+		}
+
+		int blocks = (values.length + blockSize - 1) / blockSize;
+		long[] offsets = new long[blocks + 1];
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		byte[] buffer = new byte[blockSize + 64];
+		long dataStart = Tablebase.HEADER_BYTES + (long) offsets.length * Long.BYTES;
+
+		try
+		{
+			for(int block = 0; block < blocks; block++)
+			{
+				offsets[block] = dataStart + compressed.size();
+				int start = block * blockSize;
+
+				deflater.reset();
+				deflater.setInput(values, start, Math.min(blockSize, values.length - start));
+				deflater.finish();
+				while(!deflater.finished())
+				{
+					compressed.write(buffer, 0, deflater.deflate(buffer));
+				}
+			}
+			offsets[blocks] = dataStart + compressed.size();
+		}
+		finally
+		{
+			deflater.end();
+		}
+
+		DataOutputStream out = new DataOutputStream(stream);
+		out.writeLong(Tablebase.MAGIC);
+		out.writeInt(type.ordinal());
+		out.writeInt(values.length);
+		out.writeInt(blockSize);
+		out.writeInt(blocks);
+		for(long offset : offsets)
+		{
+			out.writeLong(offset);
+		}
+		compressed.writeTo(out);
+		out.flush();
+	}
+
+	private static ChessPosition position(int square)
+	{
+		return ChessPosition.of(Bitboard.row(square), Bitboard.column(square));
+	}
+}
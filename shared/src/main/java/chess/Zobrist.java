@@ -0,0 +1,80 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the keys of every piece on its square, the
+ * castling rights, the en passant column and the side to move, so a move can update it by XOR-ing out the old
+ * keys and XOR-ing in the new ones.
+ * <p>
+ * The keys come from a fixed seed so they are the same on every run and machine, which lets keys be stored.
+ */
+public final class Zobrist
+{
+	//Indexed by (color * 6 + type) * 64 + square; hasMoved isn't part of the position, so it has no keys
+	private static final long[] PIECES = new long[12 * 64];
+	private static final long[] CASTLING = new long[16];
+	private static final long[] EN_PASSANT = new long[8];
+	private static final long BLACK_TO_MOVE;
+
+	static
+	{
+		SplittableRandom random = new SplittableRandom(0x240C4E55L);
+
+		for(int i = 0; i < PIECES.length; i++)
+		{
+			PIECES[i] = random.nextLong();
+		}
+
+		//Each castling right has its own key; a set of rights is the XOR of its members' keys
+		long[] rights = {random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong()};
+		for(int mask = 0; mask < 16; mask++)
+		{
+			for(int right = 0; right < 4; right++)
+			{
+				if((mask & (1 << right)) != 0)
+				{
+					CASTLING[mask] ^= rights[right];
+				}
+			}
+		}
+
+		for(int column = 0; column < 8; column++)
+		{
+			EN_PASSANT[column] = random.nextLong();
+		}
+
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {}
+
+	/**
+	 * @param square 0-63 square index of the piece
+	 */
+	public static long piece(ChessPiece piece, int square)
+	{
+		return PIECES[(piece.getTeamColor().ordinal() * 6 + piece.getPieceType().ordinal()) * 64 + square];
+	}
+
+	/**
+	 * @param rights Bitmask of castling rights, see {@link ChessBoard#getCastlingRights()}
+	 */
+	public static long castling(int rights)
+	{
+		return CASTLING[rights];
+	}
+
+	/**
+	 * @param column 0-7 column of the en passant target square
+	 */
+	public static long enPassant(int column)
+	{
+		return EN_PASSANT[column];
+	}
+
+	public static long blackToMove()
+	{
+		return BLACK_TO_MOVE;
+	}
+}
@@ -1,18 +1,14 @@
 package chess.calculators;
 
-import chess.*;
-
-import java.util.ArrayList;
+import chess.Bitboard;
+import chess.ChessBoard;
 
 public class BishopMoveCalculator extends MoveCalculator
 {
-	public ArrayList<ChessMove> pieceMoves(ChessBoard board, ChessPosition start)
+	public int generate(ChessBoard board, int square, int[] buffer, int count)
 	{
-		checkDirection(1, 1, board, start);
-		checkDirection(1, -1,board, start);
-		checkDirection(-1, 1, board, start);
-		checkDirection(-1, -1, board, start);
+		long attacks = Bitboard.bishopAttacks(square, board.getOccupancy());
 
-		return moves;
+		return addMoves(board, square, attacks, buffer, count);
 	}
 }
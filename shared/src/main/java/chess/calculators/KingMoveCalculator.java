@@ -2,80 +2,55 @@ package chess.calculators;
 
 import chess.*;
 
-import java.util.ArrayList;
-
 public class KingMoveCalculator extends MoveCalculator
 {
-	public ArrayList<ChessMove> pieceMoves(ChessBoard board, ChessPosition start)
+	public int generate(ChessBoard board, int square, int[] buffer, int count)
 	{
-		checkMove(0, 1, board, start);
-		checkMove(1, 0, board, start);
-		checkMove(0, -1, board, start);
-		checkMove(-1, 0, board, start);
-
-		checkMove(1, 1, board, start);
-		checkMove(1, -1, board, start);
-		checkMove(-1, 1, board, start);
-		checkMove(-1, -1, board, start);
+		count = addMoves(board, square, Bitboard.kingAttacks(square), buffer, count);
 
-		ChessPiece king = board.getPiece(start);
-
-		if(!king.getHasMoved() && board.inStartingPosition(king, start))
+		boolean white = board.getPiece(square).getTeamColor() == ChessGame.TeamColor.WHITE;
+		if(square != (white ? 4 : 60))
 		{
-			//Variables for readability; 1 & 8 for what the starting column should be.
-			ChessPiece rook1 = board.getPiece(start.offset(0, -4));
-			ChessPiece rook8 = board.getPiece(start.offset(0, 3));
-
-			if(eligibleRook(rook1, king.getTeamColor()) && isPathClear(board, start, -1) && isPathSafe(board, start, -1))
-			{
-				moves.add(new ChessMove(start, start.offset(0, -2), null));
-			}
-			if(eligibleRook(rook8, king.getTeamColor()) && isPathClear(board, start, 1) && isPathSafe(board, start, 1))
-			{
-				moves.add(new ChessMove(start, start.offset(0, 2), null));
-			}
+			return count;
 		}
 
-		return moves;
-	}
+		//A right guarantees the king & rook are still on their starting squares
+		int rights = board.getCastlingRights();
+		if((rights & (white ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE)) != 0
+				&& isPathClear(board, square, -4) && isPathSafe(board, square, -1))
+		{
+			buffer[count++] = PackedMove.of(square, square - 2, null, PackedMove.CASTLE);
+		}
+		if((rights & (white ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE)) != 0
+				&& isPathClear(board, square, 3) && isPathSafe(board, square, 1))
+		{
+			buffer[count++] = PackedMove.of(square, square + 2, null, PackedMove.CASTLE);
+		}
 
-	private boolean eligibleRook(ChessPiece rook, ChessGame.TeamColor color)
-	{
-		return rook != null && rook.getPieceType() == ChessPiece.PieceType.ROOK && !rook.getHasMoved() && rook.getTeamColor() == color;
+		return count;
 	}
 
-	private boolean isPathClear(ChessBoard board, ChessPosition kingStart, int colDirection)
+	/**
+	 * The path between king & rook is clear exactly when a rook standing on the king's square would attack the
+	 * castling rook along the row.
+	 */
+	private boolean isPathClear(ChessBoard board, int kingSquare, int rookOffset)
 	{
-		ChessPosition temp = kingStart.offset(0, colDirection);
-
-		while(checkBounds(temp.getRow(), temp.getColumn()))
-		{
-			if(board.occupied(temp) && board.getPiece(temp).getPieceType() != ChessPiece.PieceType.ROOK)
-			{
-				return false;
-			}
-
-			try
-			{
-				temp = temp.offset(0, colDirection);
-			}
-			catch(Exception ignored)
-			{
-				break;
-			}
-		}
+		long rook = Bitboard.bit(kingSquare + rookOffset);
 
-		return true;
+		return (Bitboard.rookAttacks(kingSquare, board.getOccupancy()) & rook) != Bitboard.EMPTY;
 	}
 
-	private boolean isPathSafe(ChessBoard board, ChessPosition kingStart, int colDirection)
+	/**
+	 * The king may not castle out of, through, or into check.
+	 */
+	private boolean isPathSafe(ChessBoard board, int kingSquare, int colDirection)
 	{
-		ChessPiece king = board.getPiece(kingStart);
-		ChessGame.TeamColor color = king.getTeamColor();
-		ChessGame game = new ChessGame(board);
-		ChessMove move1 = new ChessMove(kingStart, kingStart.offset(0, colDirection), null);
-		ChessMove move2 = new ChessMove(kingStart, kingStart.offset(0, colDirection * 2), null);
+		ChessGame.TeamColor enemy = board.getPiece(kingSquare).getTeamColor() == ChessGame.TeamColor.WHITE ?
+				ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
 
-		return !game.isInCheck(color) && game.legalMove(move1, board) && game.legalMove(move2, board);
+		return !board.isSquareAttacked(kingSquare, enemy)
+				&& !board.isSquareAttacked(kingSquare + colDirection, enemy)
+				&& !board.isSquareAttacked(kingSquare + colDirection * 2, enemy);
 	}
 }
@@ -1,25 +1,12 @@
 package chess.calculators;
 
+import chess.Bitboard;
 import chess.ChessBoard;
-import chess.ChessMove;
-import chess.ChessPosition;
-
-import java.util.ArrayList;
 
 public class KnightMoveCalculator extends MoveCalculator
 {
-	public ArrayList<ChessMove> pieceMoves(ChessBoard board, ChessPosition start)
+	public int generate(ChessBoard board, int square, int[] buffer, int count)
 	{
-		checkMove(1, 2, board, start);
-		checkMove(1, -2, board, start);
-		checkMove(-1, 2, board, start);
-		checkMove(-1, -2, board, start);
-
-		checkMove(2, 1, board, start);
-		checkMove(2, -1, board, start);
-		checkMove(-2, 1, board, start);
-		checkMove(-2, -1, board, start);
-
-		return moves;
+		return addMoves(board, square, Bitboard.knightAttacks(square), buffer, count);
 	}
 }
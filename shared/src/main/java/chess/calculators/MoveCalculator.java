@@ -5,98 +5,107 @@ import chess.*;
 import java.util.ArrayList;
 import java.util.Collection;
 
+/**
+ * Stateless move generators; there is one shared instance per piece type, see {@link #forType}.
+ * <p>
+ * Generators write moves into a caller-supplied int buffer, encoded as described in {@link PackedMove}.
+ */
 public abstract class MoveCalculator
 {
-	protected ArrayList<ChessMove> moves = new ArrayList<>();
-	protected ArrayList<ChessMove> captureMoves = new ArrayList<>();
-	private boolean captureFlag = false;
-
-	public abstract ArrayList<ChessMove> pieceMoves(ChessBoard board, ChessPosition start);
+	/**
+	 * The most moves a single piece can have: a queen in the middle of an open board.
+	 */
+	public static final int MAX_PIECE_MOVES = 27;
+
+	private static final MoveCalculator[] CALCULATORS = {
+		new KingMoveCalculator(),
+		new QueenMoveCalculator(),
+		new BishopMoveCalculator(),
+		new KnightMoveCalculator(),
+		new RookMoveCalculator(),
+		new PawnMoveCalculator()
+	};
+
+	/**
+	 * @return The shared generator for the given piece type.
+	 */
+	public static MoveCalculator forType(ChessPiece.PieceType type)
+	{
+		return CALCULATORS[type.ordinal()];
+	}
 
-	public Collection<ChessMove> checkCaptures(ChessBoard board, ChessPosition start)
+	/**
+	 * Writes the moves of the piece on the square into the buffer, ignoring whether they leave the king in check.
+	 *
+	 * @param board  The board the piece is on
+	 * @param square 0-63 square index of the piece
+	 * @param buffer Destination for the encoded moves; needs MAX_PIECE_MOVES free slots past count
+	 * @param count  Index of the first free slot in the buffer
+	 * @return The new number of moves in the buffer
+	 */
+	public abstract int generate(ChessBoard board, int square, int[] buffer, int count);
+
+	public ArrayList<ChessMove> pieceMoves(ChessBoard board, ChessPosition start)
 	{
-		pieceMoves(board, start);
+		int[] buffer = new int[MAX_PIECE_MOVES];
+		int count = generate(board, Bitboard.square(start), buffer, 0);
+		ArrayList<ChessMove> moves = new ArrayList<>(count);
 
-		for (ChessMove move : moves)
+		for(int i = 0; i < count; i++)
 		{
-			if (board.containsEnemy(move.getEndPosition(), board.getPiece(start)))
-			{
-				captureMoves.add(move);
-			}
+			moves.add(PackedMove.toChessMove(buffer[i]));
 		}
 
-		return captureMoves;
+		return moves;
 	}
 
-	protected void checkDirection(int rowOffset, int colOffset, ChessBoard board, ChessPosition start)
+	public Collection<ChessMove> checkCaptures(ChessBoard board, ChessPosition start)
 	{
-		captureFlag = false;
+		int[] buffer = new int[MAX_PIECE_MOVES];
+		int count = generate(board, Bitboard.square(start), buffer, 0);
+		ArrayList<ChessMove> captureMoves = new ArrayList<>();
 
-		ChessPiece piece = board.getPiece(start);
-		ChessGame.TeamColor color = piece.getTeamColor();
-
-		int row = start.getRow();
-		int col = start.getColumn();
-
-		row += rowOffset;
-		col += colOffset;
-
-		while(!captureFlag && validPieceMove(row, col, board, color))
+		for(int i = 0; i < count; i++)
 		{
-			ChessPosition end = new ChessPosition(row, col);
-
-			moves.add(new ChessMove(start, end, null));
-
-			row += rowOffset;
-			col += colOffset;
+			if(PackedMove.isCapture(buffer[i]))
+			{
+				captureMoves.add(PackedMove.toChessMove(buffer[i]));
+			}
 		}
+
+		return captureMoves;
 	}
 
-	protected void checkMove(int rowOffset, int colOffset, ChessBoard board, ChessPosition start)
+	/**
+	 * Adds a move from the start square to every square in the targets bitboard that is empty or holds an enemy,
+	 * flagging the captures.
+	 *
+	 * @return The new number of moves in the buffer
+	 */
+	protected static int addMoves(ChessBoard board, int start, long targets, int[] buffer, int count)
 	{
-		ChessPiece piece = board.getPiece(start);
-		ChessGame.TeamColor color = piece.getTeamColor();
+		long enemies = enemies(board, start);
 
-		int row = start.getRow() + rowOffset;
-		int col = start.getColumn() + colOffset;
-
-		if(validPieceMove(row, col, board, color))
-		{
-			ChessPosition end = new ChessPosition(row, col);
-
-			moves.add(new ChessMove(start, end, null));
-		}
+		count = addMoves(start, targets & ~board.getOccupancy(), PackedMove.NONE, buffer, count);
+		return addMoves(start, targets & enemies, PackedMove.CAPTURE, buffer, count);
 	}
 
-	protected boolean validPieceMove(int row, int col, ChessBoard board, ChessGame.TeamColor color)
+	protected static int addMoves(int start, long targets, int flags, int[] buffer, int count)
 	{
-		if(checkBounds(row, col))
+		while(targets != Bitboard.EMPTY)
 		{
-			return positionOpen(row, col, board) || positionContainsEnemy(row, col, board, color);
+			buffer[count++] = PackedMove.of(start, Bitboard.first(targets), null, flags);
+			targets = Bitboard.popFirst(targets);
 		}
-		return false;
-	}
 
-	protected boolean checkBounds(int row, int col)
-	{
-		return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+		return count;
 	}
 
-	protected boolean positionOpen(int row, int col, ChessBoard board)
+	/**
+	 * @return Bitboard of every square occupied by the other team of the piece on the square.
+	 */
+	protected static long enemies(ChessBoard board, int square)
 	{
-		ChessPosition position = new ChessPosition(row, col);
-
-		return board.getPiece(position) == null;
-	}
-
-	protected boolean positionContainsEnemy(int row, int col, ChessBoard board, ChessGame.TeamColor color)
-	{
-		ChessPosition position = new ChessPosition(row, col);
-		ChessPiece piece = board.getPiece(position);
-		ChessGame.TeamColor enemyColor = piece.getTeamColor();
-
-		captureFlag = true;
-
-		return color != enemyColor;
+		return board.getOccupancy() & ~board.getTeamOccupancy(board.getPiece(square).getTeamColor());
 	}
 }
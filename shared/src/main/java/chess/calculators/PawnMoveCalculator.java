@@ -2,90 +2,73 @@ package chess.calculators;
 
 import chess.*;
 
-import java.util.ArrayList;
-
 public class PawnMoveCalculator extends MoveCalculator
 {
-	private ChessGame.TeamColor color;
-	private int teamDirection;
+	private static final ChessPiece.PieceType[] PROMOTIONS = {
+		ChessPiece.PieceType.QUEEN,
+		ChessPiece.PieceType.BISHOP,
+		ChessPiece.PieceType.KNIGHT,
+		ChessPiece.PieceType.ROOK
+	};
 
-	public ArrayList<ChessMove> pieceMoves(ChessBoard board, ChessPosition start)
+	public int generate(ChessBoard board, int square, int[] buffer, int count)
 	{
-		ChessPiece piece = board.getPiece(start);
-		color = piece.getTeamColor();
+		ChessGame.TeamColor color = board.getPiece(square).getTeamColor();
+		boolean white = color == ChessGame.TeamColor.WHITE;
+		int forward = white ? 8 : -8;
+		int homeRow = white ? 2 : 7;
+		long lastRow = white ? Bitboard.ROW_8 : Bitboard.ROW_1;
+		ChessGame.TeamColor enemy = white ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
 
-		if(color == ChessGame.TeamColor.WHITE)
+		//Forward w/o capture; a pawn can't stand on its last row, but guard against hand-built boards
+		int single = square + forward;
+		if(single >= 0 && single < 64 && !board.occupied(single))
 		{
-			teamDirection = 1;
+			count = addPawnMoves(square, Bitboard.bit(single), lastRow, PackedMove.NONE, buffer, count);
+
+			//DoubleMove
+			int pawnDouble = single + forward;
+			if(Bitboard.row(square) == homeRow && !board.occupied(pawnDouble))
+			{
+				count = addPawnMoves(square, Bitboard.bit(pawnDouble), lastRow, PackedMove.NONE, buffer, count);
+			}
 		}
-		else
+
+		//Diagonals w/ capture
+		long captures = Bitboard.pawnAttacks(color, square) & board.getTeamOccupancy(enemy);
+		count = addPawnMoves(square, captures, lastRow, PackedMove.CAPTURE, buffer, count);
+
+		//En Passant; white captures on row 6 behind a black pawn, black on row 3
+		int enPassant = board.getEnPassantSquare();
+		if(enPassant != ChessBoard.NO_EN_PASSANT && (enPassant >= 32) == white
+				&& (Bitboard.pawnAttacks(color, square) & Bitboard.bit(enPassant)) != Bitboard.EMPTY)
 		{
-			teamDirection = -1;
+			buffer[count++] = PackedMove.of(square, enPassant, null, PackedMove.CAPTURE | PackedMove.EN_PASSANT);
 		}
 
-		checkMove(1, 0, board, start);
-		checkMove(1, 1, board, start);
-		checkMove(1, -1, board, start);
-		checkMove(2, 0, board, start);
-
-		return moves;
+		return count;
 	}
 
-	@Override
-	protected void checkMove(int rowOffset, int colOffset, ChessBoard board, ChessPosition start)
+	private static int addPawnMoves(int start, long targets, long lastRow, int flags, int[] buffer, int count)
 	{
-		int row = start.getRow() + (rowOffset * teamDirection);
-		int col = start.getColumn() + colOffset;
-
-		if(checkBounds(row, col))
+		while(targets != Bitboard.EMPTY)
 		{
-			//Forward w/o capture
-			if(positionOpen(row, col, board))
+			int end = Bitboard.first(targets);
+			targets = Bitboard.popFirst(targets);
+
+			if((Bitboard.bit(end) & lastRow) != Bitboard.EMPTY)
 			{
-				//DoubleMove
-				if(rowOffset == 2 && positionOpen(row - (teamDirection), col, board))
+				for(ChessPiece.PieceType promotion : PROMOTIONS)
 				{
-					//White
-					if(color == ChessGame.TeamColor.WHITE && start.getRow() == 2)
-					{
-						checkPromotion(row, col, start);
-					}
-					//Black
-					else if(color == ChessGame.TeamColor.BLACK && start.getRow() == 7)
-					{
-						checkPromotion(row, col, start);
-					}
-				}
-				//Straight Forward
-				else if(rowOffset == 1 && colOffset == 0)
-				{
-					checkPromotion(row, col, start);
+					buffer[count++] = PackedMove.of(start, end, promotion, flags);
 				}
 			}
-			//Diagonals w/ capture
-			else if(positionContainsEnemy(row, col, board, color) && colOffset != 0)
+			else
 			{
-				checkPromotion(row, col, start);
+				buffer[count++] = PackedMove.of(start, end, null, flags);
 			}
-			//En Passant
-//			else if(colOffset != 0 && )
 		}
-	}
-
-	private void checkPromotion(int row, int col, ChessPosition start)
-	{
-		ChessPosition end = new ChessPosition(row, col);
 
-		if(row == 8 && color == ChessGame.TeamColor.WHITE || row == 1 && color == ChessGame.TeamColor.BLACK)
-		{
-			moves.add(new ChessMove(start, end, ChessPiece.PieceType.QUEEN));
-			moves.add(new ChessMove(start, end, ChessPiece.PieceType.BISHOP));
-			moves.add(new ChessMove(start, end, ChessPiece.PieceType.KNIGHT));
-			moves.add(new ChessMove(start, end, ChessPiece.PieceType.ROOK));
-		}
-		else
-		{
-			moves.add(new ChessMove(start, end, null));
-		}
+		return count;
 	}
 }
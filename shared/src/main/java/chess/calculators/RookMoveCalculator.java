@@ -1,20 +1,14 @@
 package chess.calculators;
 
+import chess.Bitboard;
 import chess.ChessBoard;
-import chess.ChessMove;
-import chess.ChessPosition;
-
-import java.util.ArrayList;
 
 public class RookMoveCalculator extends MoveCalculator
 {
-	public ArrayList<ChessMove> pieceMoves(ChessBoard board, ChessPosition start)
+	public int generate(ChessBoard board, int square, int[] buffer, int count)
 	{
-		checkDirection(0, 1, board, start);
-		checkDirection(1, 0, board, start);
-		checkDirection(0, -1, board, start);
-		checkDirection(-1, 0, board, start);
+		long attacks = Bitboard.rookAttacks(square, board.getOccupancy());
 
-		return moves;
+		return addMoves(board, square, attacks, buffer, count);
 	}
 }
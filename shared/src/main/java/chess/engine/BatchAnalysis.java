@@ -0,0 +1,230 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Pgn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Searches every position of many games, e.g. to review finished games.
+ * <p>
+ * Each game is a fork-join task that replays its moves and forks one task per position, so a worker that runs out of
+ * positions steals them from busier workers instead of waiting for a long game to finish on one thread. Positions
+ * don't depend on each other, so throughput grows with the number of workers. Each worker keeps its own
+ * {@link Search} and transposition table for as long as the analysis lives, which also lets consecutive positions of
+ * a game reuse each other's results.
+ */
+public class BatchAnalysis implements AutoCloseable
+{
+	private final ForkJoinPool pool;
+	private final ThreadLocal<Search> searches;
+
+	/**
+	 * @param parallelism   Worker threads
+	 * @param hashMegabytes Transposition table size of each worker
+	 */
+	public BatchAnalysis(int parallelism, int hashMegabytes)
+	{
+		this.pool = new ForkJoinPool(parallelism);
+		this.searches = ThreadLocal.withInitial(() -> new Search(new TranspositionTable(hashMegabytes)));
+	}
+
+	/**
+	 * A worker per processor, with the configured table size.
+	 */
+	public BatchAnalysis(EngineConfig config)
+	{
+		this(Runtime.getRuntime().availableProcessors(), config.hashMegabytes());
+	}
+
+	/**
+	 * A game to analyze: its starting position and the moves played from it.
+	 */
+	public record Game(String fen, List<ChessMove> moves)
+	{
+		public Game
+		{
+			moves = List.copyOf(moves);
+		}
+
+		/**
+		 * @return A single position to analyze
+		 */
+		public static Game fromFen(String fen)
+		{
+			return new Game(fen, List.of());
+		}
+
+		/**
+		 * @param san Moves from the starting position, as read by {@link Pgn#readGames}
+		 * @throws IllegalArgumentException if a move is illegal or not SAN
+		 */
+		public static Game fromSan(List<String> san)
+		{
+			ChessGame game = new ChessGame();
+			String start = game.toFen();
+			List<ChessMove> moves = new ArrayList<>(san.size());
+
+			try
+			{
+				for(String move : san)
+				{
+					ChessMove parsed = Pgn.parseSan(game, move);
+					game.makeMove(parsed);
+					moves.add(parsed);
+				}
+			}
+			catch(InvalidMoveException e)
+			{
+				throw new IllegalArgumentException(e.getMessage(), e);
+			}
+
+			return new Game(start, moves);
+		}
+	}
+
+	/**
+	 * @param game Index of the game in the batch
+	 * @param ply  Moves played before the position; 0 is the game's starting position
+	 */
+	public record PositionAnalysis(int game, int ply, String fen, SearchResult result) {}
+
+	/**
+	 * @param positions Positions searched
+	 * @param nodes     Nodes searched across all workers
+	 * @param millis    Time from starting the batch to its last result
+	 */
+	public record Summary(int positions, long nodes, long millis)
+	{
+		public long positionsPerSecond()
+		{
+			return positions * 1000L / Math.max(millis, 1);
+		}
+
+		public long nodesPerSecond()
+		{
+			return nodes * 1000 / Math.max(millis, 1);
+		}
+	}
+
+	/**
+	 * Starts searching every position of the games. Results are handed to the consumer as each position finishes, in
+	 * no particular order and from several threads at once.
+	 *
+	 * @param results Must be safe to call from several threads
+	 * @return The running batch; {@code join()} it for the totals. Joining throws an IllegalArgumentException if a
+	 * game has an illegal move.
+	 */
+	public ForkJoinTask<Summary> analyze(List<Game> games, SearchLimits limits, Consumer<PositionAnalysis> results)
+	{
+		return pool.submit(new Batch(List.copyOf(games), limits, results));
+	}
+
+	@Override
+	public void close()
+	{
+		pool.shutdownNow();
+	}
+
+	private final class Batch extends RecursiveTask<Summary>
+	{
+		private final List<Game> games;
+		private final SearchLimits limits;
+		private final Consumer<PositionAnalysis> results;
+		private final LongAdder positions = new LongAdder();
+		private final LongAdder nodes = new LongAdder();
+
+		private Batch(List<Game> games, SearchLimits limits, Consumer<PositionAnalysis> results)
+		{
+			this.games = games;
+			this.limits = limits;
+			this.results = results;
+		}
+
+		@Override
+		protected Summary compute()
+		{
+			long start = System.currentTimeMillis();
+			List<GameTask> tasks = new ArrayList<>(games.size());
+
+			for(int i = 0; i < games.size(); i++)
+			{
+				tasks.add(new GameTask(this, i));
+			}
+			invokeAll(tasks);
+
+			return new Summary(positions.intValue(), nodes.sum(), System.currentTimeMillis() - start);
+		}
+	}
+
+	private final class GameTask extends RecursiveAction
+	{
+		private final Batch batch;
+		private final int index;
+
+		private GameTask(Batch batch, int index)
+		{
+			this.batch = batch;
+			this.index = index;
+		}
+
+		@Override
+		protected void compute()
+		{
+			Game game = batch.games.get(index);
+			ChessGame replay = ChessGame.fromFen(game.fen());
+			List<PositionTask> tasks = new ArrayList<>(game.moves().size() + 1);
+
+			tasks.add(new PositionTask(batch, index, 0, replay.toFen()));
+			for(ChessMove move : game.moves())
+			{
+				try
+				{
+					replay.makeMove(move);
+				}
+				catch(InvalidMoveException e)
+				{
+					throw new IllegalArgumentException("Game " + index + ", ply " + tasks.size() + ": " + e.getMessage(), e);
+				}
+				tasks.add(new PositionTask(batch, index, tasks.size(), replay.toFen()));
+			}
+
+			invokeAll(tasks);
+		}
+	}
+
+	private final class PositionTask extends RecursiveAction
+	{
+		private final Batch batch;
+		private final int game;
+		private final int ply;
+		private final String fen;
+
+		private PositionTask(Batch batch, int game, int ply, String fen)
+		{
+			this.batch = batch;
+			this.game = game;
+			this.ply = ply;
+			this.fen = fen;
+		}
+
+		@Override
+		protected void compute()
+		{
+			SearchResult result = searches.get().search(ChessGame.fromFen(fen), batch.limits);
+
+			batch.positions.increment();
+			batch.nodes.add(result.nodes());
+			batch.results.accept(new PositionAnalysis(game, ply, fen, result));
+		}
+	}
+}
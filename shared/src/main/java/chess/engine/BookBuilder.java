@@ -0,0 +1,137 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import chess.Pgn;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} file from PGN games. Every move played in the first plies of a game is counted for
+ * its position, and a move's weight in the book is the number of games that played it. Moves played fewer times than
+ * a minimum are left out, which keeps one-off experiments out of the book.
+ * <p>
+ * Run from the command line with {@code BookBuilder <book file> <max plies> <min games> <pgn files...>}.
+ */
+public class BookBuilder
+{
+	private final int maxPlies;
+	private final int minGames;
+	//Position key, then packed move, then the number of games that played it
+	private final Map<Long, Map<Integer, Integer>> counts = new HashMap<>();
+	private int games;
+	private int skipped;
+
+	/**
+	 * @param maxPlies How many plies of each game go into the book
+	 * @param minGames How many games must play a move for it to go into the book
+	 */
+	public BookBuilder(int maxPlies, int minGames)
+	{
+		if(maxPlies < 1 || minGames < 1)
+		{
+			throw new IllegalArgumentException("A book needs at least 1 ply and 1 game per move");
+		}
+		this.maxPlies = maxPlies;
+		this.minGames = minGames;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length < 4)
+		{
+			System.err.println("Usage: BookBuilder <book file> <max plies> <min games> <pgn files...>");
+			System.exit(1);
+		}
+
+		BookBuilder builder = new BookBuilder(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+
+		for(int i = 3; i < args.length; i++)
+		{
+			try(Reader pgn = Files.newBufferedReader(Path.of(args[i]), StandardCharsets.ISO_8859_1))
+			{
+				builder.addPgn(pgn);
+			}
+		}
+
+		int entries = builder.write(Path.of(args[0]));
+		System.out.printf("%d games read, %d stopped early on an unreadable move, %d book entries written%n",
+				builder.games, builder.skipped, entries);
+	}
+
+	public void addPgn(Reader pgn) throws IOException
+	{
+		Pgn.readGames(pgn, this::addGame);
+	}
+
+	/**
+	 * Counts the game's opening moves. A game with an illegal or unreadable move only counts up to that move.
+	 *
+	 * @param moves The game's moves in SAN, from the starting position
+	 */
+	public void addGame(List<String> moves)
+	{
+		ChessGame game = new ChessGame();
+		games++;
+
+		for(int ply = 0; ply < Math.min(maxPlies, moves.size()); ply++)
+		{
+			try
+			{
+				ChessMove move = Pgn.parseSan(game, moves.get(ply));
+				counts.computeIfAbsent(game.getZobristKey(), key -> new HashMap<>())
+						.merge(move.pack() & PackedMove.MOVE_MASK, 1, Integer::sum);
+				game.makeMove(move);
+			}
+			catch(IllegalArgumentException | InvalidMoveException e)
+			{
+				skipped++;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Writes the book, replacing any existing file.
+	 *
+	 * @return Number of entries written
+	 */
+	public int write(Path path) throws IOException
+	{
+		List<long[]> entries = new ArrayList<>();
+
+		counts.forEach((key, moves) -> moves.forEach((move, played) -> {
+			if(played >= minGames)
+			{
+				entries.add(new long[]{key, move, Math.min(played, 0xFFFF)});
+			}
+		}));
+		//The book is binary searched as unsigned keys
+		entries.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))
+		{
+			out.writeLong(OpeningBook.MAGIC);
+			out.writeLong(entries.size());
+
+			for(long[] entry : entries)
+			{
+				out.writeLong(entry[0]);
+				out.writeShort((int) entry[1]);
+				out.writeShort((int) entry[2]);
+				out.writeInt(0);
+			}
+		}
+
+		return entries.size();
+	}
+}
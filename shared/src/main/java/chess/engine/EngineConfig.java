@@ -0,0 +1,109 @@
+package chess.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Engine settings, read from an optional engine.properties file on the classpath. Missing keys keep their defaults.
+ *
+ * @param hashMegabytes Memory for the transposition table ({@code engine.hash.mb})
+ * @param threads       Threads searching each position, sharing the table ({@code engine.threads})
+ * @param workers       Searches a server runs at once ({@code engine.workers})
+ * @param queueCapacity Searches a server holds waiting for a worker before turning requests away
+ *                      ({@code engine.queue})
+ * @param moveMillis    Time budget of a server search, counted from the request ({@code engine.move.ms})
+ * @param book          Opening book file consulted before searching, see {@link OpeningBook}; null for none
+ *                      ({@code engine.book})
+ * @param tablebases    Directory of endgame tables used for perfect play, see {@link chess.Tablebase}; null for none
+ *                      ({@code engine.tablebases})
+ * @param tablebaseCacheBlocks Decompressed tablebase blocks kept in memory ({@code engine.tablebase.cache})
+ */
+public record EngineConfig(int hashMegabytes, int threads, int workers, int queueCapacity, int moveMillis, Path book,
+						   Path tablebases, int tablebaseCacheBlocks)
+{
+	public static final EngineConfig DEFAULT = new EngineConfig(16, 1, 2, 16, 1000, null, null, 64);
+
+	public EngineConfig
+	{
+		if(hashMegabytes < 1)
+		{
+			throw new IllegalArgumentException("engine.hash.mb must be at least 1");
+		}
+		if(threads < 1)
+		{
+			throw new IllegalArgumentException("engine.threads must be at least 1");
+		}
+		if(workers < 1)
+		{
+			throw new IllegalArgumentException("engine.workers must be at least 1");
+		}
+		if(queueCapacity < 0)
+		{
+			throw new IllegalArgumentException("engine.queue can't be negative");
+		}
+		if(moveMillis < 1)
+		{
+			throw new IllegalArgumentException("engine.move.ms must be at least 1");
+		}
+		if(tablebaseCacheBlocks < 1)
+		{
+			throw new IllegalArgumentException("engine.tablebase.cache must be at least 1");
+		}
+	}
+
+	/**
+	 * @return The settings in engine.properties, or the defaults if there is no such file.
+	 */
+	public static EngineConfig load()
+	{
+		try(InputStream propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("engine.properties"))
+		{
+			if(propStream == null)
+			{
+				return DEFAULT;
+			}
+
+			Properties props = new Properties();
+			props.load(propStream);
+			return fromProperties(props);
+		}
+		catch(IOException ex)
+		{
+			throw new RuntimeException("unable to process engine.properties", ex);
+		}
+	}
+
+	public static EngineConfig fromProperties(Properties props)
+	{
+		return new EngineConfig(intProperty(props, "engine.hash.mb", DEFAULT.hashMegabytes()),
+				intProperty(props, "engine.threads", DEFAULT.threads()),
+				intProperty(props, "engine.workers", DEFAULT.workers()),
+				intProperty(props, "engine.queue", DEFAULT.queueCapacity()),
+				intProperty(props, "engine.move.ms", DEFAULT.moveMillis()),
+				pathProperty(props, "engine.book"),
+				pathProperty(props, "engine.tablebases"),
+				intProperty(props, "engine.tablebase.cache", DEFAULT.tablebaseCacheBlocks()));
+	}
+
+	private static Path pathProperty(Properties props, String key)
+	{
+		String value = props.getProperty(key);
+		return value == null || value.isBlank() ? null : Path.of(value.trim());
+	}
+
+	private static int intProperty(Properties props, String key, int fallback)
+	{
+		String value = props.getProperty(key);
+
+		try
+		{
+			return value == null ? fallback : Integer.parseInt(value.trim());
+		}
+		catch(NumberFormatException ex)
+		{
+			throw new IllegalArgumentException(key + " must be a whole number: " + value);
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Known replies to opening positions, read from a book file that is memory-mapped and binary-searched where it lies
+ * instead of being loaded onto the heap. Lookups allocate only their result and are safe from any number of threads.
+ * <p>
+ * The file starts with a 16 byte header, the magic number {@code CHESSBK1} and the number of entries, followed by
+ * 16 byte entries sorted by key: the position's Zobrist key (8 bytes, see {@link ChessGame#getZobristKey()}), the
+ * move (2 bytes, the {@link PackedMove#MOVE_MASK} bits), its weight (2 bytes) and 4 reserved bytes. All values are
+ * big-endian. {@link BookBuilder} writes such files from PGN.
+ */
+public class OpeningBook
+{
+	static final long MAGIC = 0x4348_4553_5342_4B31L;
+	static final int HEADER_BYTES = 16;
+	static final int ENTRY_BYTES = 16;
+
+	//Read with absolute gets only, which don't touch the buffer's position and so can be shared between threads
+	private final ByteBuffer entries;
+	private final int count;
+
+	private OpeningBook(ByteBuffer entries, int count)
+	{
+		this.entries = entries;
+		this.count = count;
+	}
+
+	/**
+	 * A move stored for a position.
+	 *
+	 * @param move   Packed as described in {@link PackedMove}, without flags
+	 * @param weight How strongly the book recommends the move, relative to the position's other moves
+	 */
+	public record Entry(int move, int weight) {}
+
+	/**
+	 * @throws IOException if the file can't be read or isn't a book
+	 */
+	public static OpeningBook open(Path path) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			long size = channel.size();
+
+			if(size < HEADER_BYTES || (size - HEADER_BYTES) % ENTRY_BYTES != 0 || size > Integer.MAX_VALUE)
+			{
+				throw new IOException("Not an opening book: " + path);
+			}
+
+			//The mapping stays valid after the channel is closed
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			long count = buffer.getLong(8);
+
+			if(buffer.getLong(0) != MAGIC || count != (size - HEADER_BYTES) / ENTRY_BYTES)
+			{
+				throw new IOException("Not an opening book: " + path);
+			}
+			return new OpeningBook(buffer, (int) count);
+		}
+	}
+
+	/**
+	 * @return The book's moves for the position with the given key, highest weight first
+	 */
+	public List<Entry> entries(long key)
+	{
+		List<Entry> found = new ArrayList<>();
+
+		for(int i = firstEntry(key); i < count && key(i) == key; i++)
+		{
+			int offset = HEADER_BYTES + i * ENTRY_BYTES;
+			found.add(new Entry(entries.getShort(offset + 8) & PackedMove.MOVE_MASK, entries.getShort(offset + 10) & 0xFFFF));
+		}
+
+		found.sort((a, b) -> Integer.compare(b.weight(), a.weight()));
+		return found;
+	}
+
+	/**
+	 * @return The highest weighted book move for the game's position, or null if the position isn't in the book
+	 */
+	public ChessMove bestMove(ChessGame game)
+	{
+		List<Entry> moves = legalEntries(game);
+		return moves.isEmpty() ? null : PackedMove.toChessMove(moves.getFirst().move());
+	}
+
+	/**
+	 * Picks one of the book moves for the game's position at random, in proportion to their weights, so play varies
+	 * from game to game.
+	 *
+	 * @return The move, or null if the position isn't in the book
+	 */
+	public ChessMove pickMove(ChessGame game, RandomGenerator random)
+	{
+		List<Entry> moves = legalEntries(game);
+		int total = moves.stream().mapToInt(Entry::weight).sum();
+
+		if(total == 0)
+		{
+			return null;
+		}
+
+		int pick = random.nextInt(total);
+		for(Entry entry : moves)
+		{
+			pick -= entry.weight();
+			if(pick < 0)
+			{
+				return PackedMove.toChessMove(entry.move());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return Number of entries in the book
+	 */
+	public int size()
+	{
+		return count;
+	}
+
+	/**
+	 * Entries whose move is legal in the game's position; guards against two positions sharing a key.
+	 */
+	private List<Entry> legalEntries(ChessGame game)
+	{
+		List<Entry> moves = entries(game.getZobristKey());
+
+		if(!moves.isEmpty())
+		{
+			Collection<ChessMove> legal = game.legalMoves();
+			moves.removeIf(entry -> entry.weight() == 0 || !legal.contains(PackedMove.toChessMove(entry.move())));
+		}
+		return moves;
+	}
+
+	/**
+	 * @return Index of the first entry with the key, or of the first entry after where it would be
+	 */
+	private int firstEntry(long key)
+	{
+		int low = 0;
+		int high = count;
+
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+
+			//Keys are sorted as unsigned numbers
+			if(Long.compareUnsigned(key(middle), key) < 0)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private long key(int index)
+	{
+		return entries.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+	}
+}
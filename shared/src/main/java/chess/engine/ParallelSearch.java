@@ -0,0 +1,188 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Evaluator;
+import chess.PieceSquareEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Lazy SMP: several threads search the same position at once, sharing one {@link TranspositionTable}. The threads
+ * don't coordinate beyond the table; each one's results cut off and order the others' searches. Helper threads
+ * alternate between starting their iterative deepening at depth 2 and depth 1, so half of them are an iteration ahead
+ * of the main thread and fill the table for it. The main thread's result is the answer, and the helpers are stopped
+ * as soon as it finishes.
+ * <p>
+ * Helpers run on threads owned by this object, so it should be closed when no longer needed. Only one search may run
+ * at a time; {@link #stop()} may be called from any thread, and like {@link Search#stop()} it lasts until
+ * {@link #reset()}.
+ */
+public class ParallelSearch implements AutoCloseable
+{
+	private final TranspositionTable table;
+	private final Search[] searches;
+	//Null when there are no helper threads
+	private final ExecutorService helpers;
+	//Set by stop() and kept until reset(); the helpers are also stopped whenever the main thread finishes
+	private volatile boolean stopped;
+
+	public ParallelSearch(EngineConfig config)
+	{
+		this(new TranspositionTable(config), config.threads());
+	}
+
+	/**
+	 * @param threads Number of searching threads, including the caller's
+	 */
+	public ParallelSearch(TranspositionTable table, int threads)
+	{
+		this(table, threads, PieceSquareEvaluator::new);
+	}
+
+	/**
+	 * @param evaluators Called once per thread, since evaluators may keep state about the board
+	 */
+	public ParallelSearch(TranspositionTable table, int threads, Supplier<Evaluator> evaluators)
+	{
+		if(threads < 1)
+		{
+			throw new IllegalArgumentException("A search needs at least 1 thread");
+		}
+
+		this.table = table;
+		this.searches = new Search[threads];
+
+		for(int i = 0; i < threads; i++)
+		{
+			searches[i] = new Search(table, evaluators.get());
+		}
+
+		this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+			Thread thread = new Thread(runnable, "search-helper");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Searches the game's current position on every thread, returning when the main thread is done. The game itself
+	 * isn't modified. Returns at once if {@link #stop()} has been called since the last {@link #reset()}.
+	 */
+	public ParallelSearchResult search(ChessGame game, SearchLimits limits)
+	{
+		//Every thread copies this snapshot, so none of them reads the game's board while the caller might change it
+		ChessBoard position = new ChessBoard(game.getBoard());
+		ChessGame.TeamColor toMove = game.getTeamTurn();
+		List<Future<SearchResult>> running = new ArrayList<>();
+
+		table.newSearch();
+		//Only the helpers were stopped by the last search finishing. stop() sets the flag before stopping the
+		//searches, so a stop that comes during this loop is either seen below or stops the searches after it.
+		for(int i = 1; i < searches.length; i++)
+		{
+			searches[i].reset();
+		}
+		if(stopped)
+		{
+			stop();
+		}
+
+		for(int i = 1; i < searches.length; i++)
+		{
+			Search helper = searches[i];
+			//Odd helpers start at depth 2, even ones at depth 1 with the main thread
+			int firstDepth = 1 + i % 2;
+			running.add(helpers.submit(() -> helper.search(position, toMove, limits, firstDepth)));
+		}
+
+		SearchResult main;
+		try
+		{
+			main = searches[0].search(position, toMove, limits, 1);
+		}
+		finally
+		{
+			for(int i = 1; i < searches.length; i++)
+			{
+				searches[i].stop();
+			}
+		}
+
+		List<SearchResult> threads = new ArrayList<>();
+		threads.add(main);
+		threads.addAll(finish(running));
+
+		long nodes = threads.stream().mapToLong(SearchResult::nodes).sum();
+		return new ParallelSearchResult(new SearchResult(main.move(), main.score(), main.depth(), nodes, main.millis()), threads);
+	}
+
+	/**
+	 * Asks a running search to stop as soon as possible; it returns the result of the main thread's last completed
+	 * iteration.
+	 */
+	public void stop()
+	{
+		stopped = true;
+		for(Search search : searches)
+		{
+			search.stop();
+		}
+	}
+
+	/**
+	 * Clears a stop request so the next search runs to its limits.
+	 */
+	public void reset()
+	{
+		stopped = false;
+		for(Search search : searches)
+		{
+			search.reset();
+		}
+	}
+
+	public int threads()
+	{
+		return searches.length;
+	}
+
+	@Override
+	public void close()
+	{
+		if(helpers != null)
+		{
+			helpers.shutdownNow();
+		}
+	}
+
+	private static List<SearchResult> finish(List<Future<SearchResult>> running)
+	{
+		List<SearchResult> results = new ArrayList<>();
+
+		for(Future<SearchResult> helper : running)
+		{
+			try
+			{
+				results.add(helper.get());
+			}
+			catch(InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for search helpers", ex);
+			}
+			catch(ExecutionException ex)
+			{
+				throw new IllegalStateException("A search helper failed", ex.getCause());
+			}
+		}
+
+		return results;
+	}
+}
@@ -0,0 +1,20 @@
+package chess.engine;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link ParallelSearch}.
+ *
+ * @param result  The main thread's result, with the nodes of every thread added together
+ * @param threads Each thread's own result, main thread first; their nodes and timings give per-thread speeds
+ */
+public record ParallelSearchResult(SearchResult result, List<SearchResult> threads)
+{
+	/**
+	 * @return Nodes per second across all threads.
+	 */
+	public long nodesPerSecond()
+	{
+		return result.nodesPerSecond();
+	}
+}
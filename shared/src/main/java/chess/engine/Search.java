@@ -0,0 +1,506 @@
+package chess.engine;
+
+import chess.*;
+
+import java.util.Arrays;
+
+/**
+ * Negamax alpha-beta search with iterative deepening and a quiescence search over captures. Positions where the
+ * search stops are scored by an {@link Evaluator}.
+ * <p>
+ * Moves are tried in order of MVV-LVA for captures (most valuable victim, least valuable attacker), then the two
+ * killer moves of the ply, then the history heuristic. A {@link TranspositionTable} remembers results between
+ * iterations and transpositions: its move is tried first, and a deep enough entry ends the node without a search.
+ * <p>
+ * The search runs on its own copy of the board and is single threaded; an instance may be reused for later searches
+ * but not shared between threads. {@link #stop()} may be called from any thread.
+ */
+public class Search
+{
+	/**
+	 * Score of checkmating on the current move; a mate n plies from the root scores MATE - n.
+	 */
+	public static final int MATE = 32_000;
+	private static final int INFINITY = MATE + 1;
+
+	//Deepest ply the search, including quiescence and check extensions, can reach
+	private static final int MAX_PLY = 96;
+	//How many nodes pass between checks of the clock
+	private static final int CHECK_INTERVAL = 1024;
+
+	//Move ordering values of the pieces, indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+	private static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+	//Move ordering bands, best first
+	private static final int ORDER_PV = 3_000_000;
+	private static final int ORDER_CAPTURE = 2_000_000;
+	private static final int ORDER_KILLER = 1_000_000;
+
+	private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+	private final int[][] orders = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+	private final int[][] killers = new int[MAX_PLY][2];
+	//Indexed by color, then start * 64 + end
+	private final int[][] history = new int[2][64 * 64];
+	private final TranspositionTable table;
+	private final Evaluator evaluator;
+
+	private ChessBoard board;
+	private ChessGame.TeamColor toMove;
+	private SearchLimits limits;
+	private long start;
+	private long nodes;
+	private int iteration;
+	private int rootBest;
+	//Set by stop() and kept until reset()
+	private volatile boolean stopped;
+	//Set when this search runs out of nodes or time, and cleared when the next one starts
+	private boolean limitReached;
+
+	/**
+	 * Searches with a table sized by engine.properties and the default {@link PieceSquareEvaluator}.
+	 */
+	public Search()
+	{
+		this(new TranspositionTable(EngineConfig.load()));
+	}
+
+	public Search(TranspositionTable table)
+	{
+		this(table, new PieceSquareEvaluator());
+	}
+
+	/**
+	 * @param evaluator Used by this search alone, since evaluators may keep state about the board
+	 */
+	public Search(TranspositionTable table, Evaluator evaluator)
+	{
+		this.table = table;
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * Searches the game's current position. The game itself isn't modified. Returns at once if {@link #stop()} has
+	 * been called since the last {@link #reset()}.
+	 */
+	public SearchResult search(ChessGame game, SearchLimits limits)
+	{
+		table.newSearch();
+		return search(game.getBoard(), game.getTeamTurn(), limits, 1);
+	}
+
+	/**
+	 * Searches without starting a new table generation, so several threads can search one position into a shared
+	 * table; see {@link ParallelSearch}.
+	 *
+	 * @param position   Copied before searching, so several searches may read it at once
+	 * @param firstDepth Depth of the first iteration. Helper threads start deeper so they don't all search in step.
+	 */
+	SearchResult search(ChessBoard position, ChessGame.TeamColor toMove, SearchLimits limits, int firstDepth)
+	{
+		this.board = new ChessBoard(position);
+		this.toMove = toMove;
+		this.limits = limits;
+		this.start = System.currentTimeMillis();
+		this.nodes = 0;
+		this.limitReached = false;
+		clearHeuristics();
+
+		int count = MoveGenerator.legalMoves(board, toMove, moves[0]);
+		if(count == 0)
+		{
+			return new SearchResult(PackedMove.NONE, inCheck() ? -MATE : 0, 0, 0, elapsed());
+		}
+
+		SearchResult result = new SearchResult(moves[0][0], 0, 0, 0, 0);
+		rootBest = PackedMove.NONE;
+
+		for(iteration = Math.min(firstDepth, limits.depth()); iteration <= limits.depth(); iteration++)
+		{
+			int score = negamax(iteration, 0, -INFINITY, INFINITY);
+
+			if(halted())
+			{
+				break;
+			}
+
+			result = new SearchResult(rootBest, score, iteration, nodes, elapsed());
+
+			//Stop early on a found mate, or when the next iteration likely won't finish in time
+			if(isMate(score) || elapsed() * 2 > limits.millis())
+			{
+				break;
+			}
+		}
+
+		return new SearchResult(result.move(), result.score(), result.depth(), nodes, elapsed());
+	}
+
+	/**
+	 * Asks a running search to stop as soon as possible; it returns the result of its last completed iteration. The
+	 * request stays in effect until {@link #reset()}, so a stop that comes just before a search starts isn't lost.
+	 */
+	public void stop()
+	{
+		stopped = true;
+	}
+
+	/**
+	 * Clears a stop request so the next search runs to its limits.
+	 */
+	public void reset()
+	{
+		stopped = false;
+	}
+
+	/**
+	 * @return Whether the score is a forced mate for either side.
+	 */
+	public static boolean isMate(int score)
+	{
+		return Math.abs(score) >= MATE - MAX_PLY;
+	}
+
+	private int negamax(int depth, int ply, int alpha, int beta)
+	{
+		boolean check = inCheck();
+
+		//Don't drop into quiescence while in check; look one ply deeper for an escape instead
+		if(check && ply < MAX_PLY / 2)
+		{
+			depth++;
+		}
+		if(depth <= 0)
+		{
+			return quiescence(ply, alpha, beta);
+		}
+		if(visit() || ply >= MAX_PLY - 1)
+		{
+			return evaluate();
+		}
+
+		long key = board.getZobristKey() ^ (toMove == ChessGame.TeamColor.BLACK ? Zobrist.blackToMove() : 0);
+		long entry = table.probe(key);
+		int hashMove = PackedMove.NONE;
+
+		if(entry != TranspositionTable.MISS)
+		{
+			hashMove = TranspositionTable.move(entry);
+
+			//The root always searches, so there is a best move to report
+			if(ply > 0 && TranspositionTable.depth(entry) >= depth)
+			{
+				int score = fromTable(TranspositionTable.score(entry), ply);
+				int bound = TranspositionTable.bound(entry);
+
+				if(bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+						|| (bound == TranspositionTable.UPPER && score <= alpha))
+				{
+					return score;
+				}
+			}
+		}
+
+		int[] list = moves[ply];
+		int count = MoveGenerator.legalMoves(board, toMove, list);
+
+		if(count == 0)
+		{
+			return check ? -MATE + ply : 0;
+		}
+
+		orderMoves(ply, count, ply == 0 && rootBest != PackedMove.NONE ? rootBest : hashMove);
+		int originalAlpha = alpha;
+		int best = -INFINITY;
+		int bestMove = hashMove;
+
+		for(int i = 0; i < count; i++)
+		{
+			int move = nextMove(ply, i, count);
+			int undo = makeMove(move);
+			int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+			unmakeMove(move, undo);
+
+			if(halted())
+			{
+				return 0;
+			}
+			if(score > best)
+			{
+				best = score;
+
+				if(score > alpha)
+				{
+					alpha = score;
+					bestMove = move;
+					if(ply == 0)
+					{
+						rootBest = move;
+					}
+					if(alpha >= beta)
+					{
+						rememberCutoff(move, ply, depth);
+						break;
+					}
+				}
+			}
+		}
+
+		int bound = best >= beta ? TranspositionTable.LOWER
+				: best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+		table.store(key, bestMove, toTable(best, ply), depth, bound);
+
+		return best;
+	}
+
+	/**
+	 * Mate scores count plies from the root, but a table entry may be reached at any ply; store them counted from the
+	 * entry's own position instead.
+	 */
+	private static int toTable(int score, int ply)
+	{
+		return score >= MATE - MAX_PLY ? score + ply : score <= -MATE + MAX_PLY ? score - ply : score;
+	}
+
+	private static int fromTable(int score, int ply)
+	{
+		return score >= MATE - MAX_PLY ? score - ply : score <= -MATE + MAX_PLY ? score + ply : score;
+	}
+
+	/**
+	 * Searches captures and promotions only until the position is quiet, so the evaluation isn't taken in the middle
+	 * of an exchange. The side to move may "stand pat" on the static evaluation rather than capture.
+	 */
+	private int quiescence(int ply, int alpha, int beta)
+	{
+		if(visit() || ply >= MAX_PLY - 1)
+		{
+			return evaluate();
+		}
+
+		int standPat = evaluate();
+		if(standPat >= beta)
+		{
+			return standPat;
+		}
+		alpha = Math.max(alpha, standPat);
+
+		int[] list = moves[ply];
+		int count = 0;
+		int all = MoveGenerator.legalMoves(board, toMove, list);
+
+		for(int i = 0; i < all; i++)
+		{
+			if(PackedMove.isCapture(list[i]) || PackedMove.promotion(list[i]) != null)
+			{
+				list[count++] = list[i];
+			}
+		}
+
+		orderMoves(ply, count, PackedMove.NONE);
+		int best = standPat;
+
+		for(int i = 0; i < count; i++)
+		{
+			int move = nextMove(ply, i, count);
+			int undo = makeMove(move);
+			int score = -quiescence(ply + 1, -beta, -alpha);
+			unmakeMove(move, undo);
+
+			if(halted())
+			{
+				return 0;
+			}
+			if(score > best)
+			{
+				best = score;
+				if(score > alpha)
+				{
+					alpha = score;
+					if(alpha >= beta)
+					{
+						break;
+					}
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Counts a node and checks the limits every CHECK_INTERVAL nodes. The first iteration always runs to the end so
+	 * there is a searched move to return.
+	 *
+	 * @return Whether the search has been stopped
+	 */
+	private boolean visit()
+	{
+		nodes++;
+
+		if(iteration > 1 && nodes % CHECK_INTERVAL == 0 && (elapsed() >= limits.millis() || nodes >= limits.nodes()))
+		{
+			limitReached = true;
+		}
+		return halted();
+	}
+
+	private boolean halted()
+	{
+		return stopped || limitReached;
+	}
+
+	private int evaluate()
+	{
+		return evaluator.evaluate(board, toMove);
+	}
+
+	private void orderMoves(int ply, int count, int pvMove)
+	{
+		int[] list = moves[ply];
+		int[] order = orders[ply];
+		int[] colorHistory = history[toMove.ordinal()];
+
+		for(int i = 0; i < count; i++)
+		{
+			int move = list[i];
+
+			if(pvMove != PackedMove.NONE && PackedMove.sameMove(move, pvMove))
+			{
+				order[i] = ORDER_PV;
+			}
+			else if(PackedMove.isCapture(move))
+			{
+				order[i] = ORDER_CAPTURE + victimValue(move) * 16 - PIECE_VALUES[attacker(move)] / 16;
+			}
+			else if(PackedMove.promotion(move) != null)
+			{
+				order[i] = ORDER_CAPTURE + PIECE_VALUES[PackedMove.promotion(move).ordinal()];
+			}
+			else if(move == killers[ply][0])
+			{
+				order[i] = ORDER_KILLER + 1;
+			}
+			else if(move == killers[ply][1])
+			{
+				order[i] = ORDER_KILLER;
+			}
+			else
+			{
+				order[i] = colorHistory[PackedMove.start(move) * 64 + PackedMove.end(move)];
+			}
+		}
+	}
+
+	/**
+	 * Selection sort one step at a time: moves the best remaining move to index i, so a cutoff early in the list
+	 * saves sorting the rest.
+	 */
+	private int nextMove(int ply, int i, int count)
+	{
+		int[] list = moves[ply];
+		int[] order = orders[ply];
+		int best = i;
+
+		for(int j = i + 1; j < count; j++)
+		{
+			if(order[j] > order[best])
+			{
+				best = j;
+			}
+		}
+
+		int move = list[best];
+		list[best] = list[i];
+		list[i] = move;
+
+		int score = order[best];
+		order[best] = order[i];
+		order[i] = score;
+
+		return move;
+	}
+
+	/**
+	 * Quiet moves that cause a beta cutoff become killers for their ply and gain history, weighted by depth.
+	 */
+	private void rememberCutoff(int move, int ply, int depth)
+	{
+		if(PackedMove.isCapture(move) || PackedMove.promotion(move) != null)
+		{
+			return;
+		}
+
+		if(killers[ply][0] != move)
+		{
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+
+		int[] colorHistory = history[toMove.ordinal()];
+		int index = PackedMove.start(move) * 64 + PackedMove.end(move);
+		colorHistory[index] += depth * depth;
+
+		//Keep history below the killer band
+		if(colorHistory[index] >= ORDER_KILLER)
+		{
+			for(int i = 0; i < colorHistory.length; i++)
+			{
+				colorHistory[i] /= 2;
+			}
+		}
+	}
+
+	private int victimValue(int move)
+	{
+		ChessPiece victim = board.getPiece(PackedMove.end(move));
+		//En passant is the only capture onto an empty square
+		return victim == null ? PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()] : PIECE_VALUES[victim.getPieceType().ordinal()];
+	}
+
+	private int attacker(int move)
+	{
+		return board.getPiece(PackedMove.start(move)).getPieceType().ordinal();
+	}
+
+	private void clearHeuristics()
+	{
+		for(int[] plyKillers : killers)
+		{
+			plyKillers[0] = PackedMove.NONE;
+			plyKillers[1] = PackedMove.NONE;
+		}
+		for(int[] colorHistory : history)
+		{
+			Arrays.fill(colorHistory, 0);
+		}
+	}
+
+	private boolean inCheck()
+	{
+		long king = board.getPieces(toMove, ChessPiece.PieceType.KING);
+		return king != Bitboard.EMPTY && board.isSquareAttacked(Bitboard.first(king), other(toMove));
+	}
+
+	private int makeMove(int move)
+	{
+		int undo = board.makeMove(move);
+		toMove = other(toMove);
+		return undo;
+	}
+
+	private void unmakeMove(int move, int undo)
+	{
+		toMove = other(toMove);
+		board.unmakeMove(move, undo);
+	}
+
+	private long elapsed()
+	{
+		return System.currentTimeMillis() - start;
+	}
+
+	private static ChessGame.TeamColor other(ChessGame.TeamColor color)
+	{
+		return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+	}
+}
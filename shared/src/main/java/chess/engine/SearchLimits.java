@@ -0,0 +1,47 @@
+package chess.engine;
+
+/**
+ * When a search should stop. The limits are checked from the second iteration on, so a search always returns at
+ * least a depth 1 result unless it's stopped from outside.
+ *
+ * @param depth  Deepest iteration to search, in plies
+ * @param millis Time budget in milliseconds
+ * @param nodes  Most nodes to visit
+ */
+public record SearchLimits(int depth, long millis, long nodes)
+{
+	public static final int MAX_DEPTH = 48;
+
+	public SearchLimits
+	{
+		if(depth < 1 || millis < 1 || nodes < 1)
+		{
+			throw new IllegalArgumentException("Search limits must be positive");
+		}
+		depth = Math.min(depth, MAX_DEPTH);
+	}
+
+	/**
+	 * @return Limits bounded only by time.
+	 */
+	public static SearchLimits millis(long millis)
+	{
+		return new SearchLimits(MAX_DEPTH, millis, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @return Limits bounded only by the number of nodes, which unlike time doesn't depend on how fast the machine is.
+	 */
+	public static SearchLimits nodes(long nodes)
+	{
+		return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, nodes);
+	}
+
+	/**
+	 * @return Limits bounded only by depth.
+	 */
+	public static SearchLimits depth(int depth)
+	{
+		return new SearchLimits(depth, Long.MAX_VALUE, Long.MAX_VALUE);
+	}
+}
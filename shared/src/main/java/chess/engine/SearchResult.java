@@ -0,0 +1,30 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.PackedMove;
+
+/**
+ * Outcome of a search.
+ *
+ * @param move   Best move found, packed as described in {@link PackedMove}; {@link PackedMove#NONE} if the side to
+ *               move has no legal moves
+ * @param score  Score of the position for the side to move in centipawns, see {@link Search#isMate(int)}
+ * @param depth  Deepest completed iteration
+ * @param nodes  Nodes visited, including quiescence nodes
+ * @param millis Time spent searching
+ */
+public record SearchResult(int move, int score, int depth, long nodes, long millis)
+{
+	/**
+	 * @return The best move, or null if the side to move has no legal moves.
+	 */
+	public ChessMove bestMove()
+	{
+		return move == PackedMove.NONE ? null : PackedMove.toChessMove(move);
+	}
+
+	public long nodesPerSecond()
+	{
+		return nodes * 1000 / Math.max(millis, 1);
+	}
+}
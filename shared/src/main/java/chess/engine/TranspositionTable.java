@@ -0,0 +1,183 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, keyed by Zobrist key and safe to share between searching threads without
+ * locks.
+ * <p>
+ * Each entry is two longs: the key XORed with the data, then the data. Writers store both halves without
+ * synchronization, so a reader may see halves from two different writes; XORing them back together then gives a key
+ * that doesn't match, and the torn entry reads as a miss. The data packs the best move (18 bits), score (16), depth
+ * (8), bound type (2) and the search generation (8) that stored it.
+ * <p>
+ * Entries are grouped in buckets of two. The first slot keeps the deepest result seen, unless it was left by an
+ * earlier search; the second is always overwritten, so recent shallow results still find a home.
+ */
+public class TranspositionTable
+{
+	/**
+	 * The stored score is the exact value of the position.
+	 */
+	public static final int EXACT = 0;
+	/**
+	 * The search failed high: the score is a lower bound.
+	 */
+	public static final int LOWER = 1;
+	/**
+	 * The search failed low: the score is an upper bound.
+	 */
+	public static final int UPPER = 2;
+
+	/**
+	 * Returned by {@link #probe(long)} when the position isn't in the table. No stored entry packs to 0, because the
+	 * score is stored with an offset that keeps it above zero.
+	 */
+	public static final long MISS = 0;
+
+	private static final int ENTRY_LONGS = 2;
+	private static final int BUCKET_ENTRIES = 2;
+	private static final int BUCKET_BYTES = ENTRY_LONGS * BUCKET_ENTRIES * Long.BYTES;
+
+	private static final int MOVE_BITS = 18;
+	private static final int SCORE_SHIFT = MOVE_BITS;
+	private static final int SCORE_OFFSET = 1 << 15;
+	private static final int DEPTH_SHIFT = SCORE_SHIFT + 16;
+	private static final int BOUND_SHIFT = DEPTH_SHIFT + 8;
+	private static final int GENERATION_SHIFT = BOUND_SHIFT + 2;
+
+	private final long[] table;
+	private final int bucketMask;
+	private int generation;
+
+	/**
+	 * @param megabytes Upper bound on the memory used; the table takes the largest power of two buckets that fits
+	 */
+	public TranspositionTable(int megabytes)
+	{
+		if(megabytes < 1)
+		{
+			throw new IllegalArgumentException("A transposition table needs at least 1 megabyte");
+		}
+
+		long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BUCKET_BYTES);
+		//Java arrays are indexed by int, which caps the table at 2^30 longs (8 GB)
+		buckets = Math.max(1, Math.min(buckets, 1L << 28));
+
+		this.table = new long[(int) buckets * ENTRY_LONGS * BUCKET_ENTRIES];
+		this.bucketMask = (int) buckets - 1;
+	}
+
+	public TranspositionTable(EngineConfig config)
+	{
+		this(config.hashMegabytes());
+	}
+
+	/**
+	 * @return The packed data stored for the key, or {@link #MISS}
+	 */
+	public long probe(long key)
+	{
+		int index = bucket(key);
+
+		for(int i = 0; i < BUCKET_ENTRIES; i++, index += ENTRY_LONGS)
+		{
+			long data = table[index + 1];
+
+			if((table[index] ^ data) == key && data != MISS)
+			{
+				return data;
+			}
+		}
+
+		return MISS;
+	}
+
+	/**
+	 * Stores a search result. Mate scores must already be relative to this position rather than to the root.
+	 *
+	 * @param move  Best move found, or {@link chess.PackedMove#NONE}
+	 * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+	 */
+	public void store(long key, int move, int score, int depth, int bound)
+	{
+		long data = pack(move, score, depth, bound, generation);
+		int index = bucket(key);
+		long deepest = table[index + 1];
+
+		//The deepest slot takes the entry if it holds this position, a shallower result or an old search's result
+		if(deepest == MISS || (table[index] ^ deepest) == key || depth >= depth(deepest)
+				|| generation(deepest) != generation)
+		{
+			table[index] = key ^ data;
+			table[index + 1] = data;
+		}
+		else
+		{
+			table[index + ENTRY_LONGS] = key ^ data;
+			table[index + ENTRY_LONGS + 1] = data;
+		}
+	}
+
+	/**
+	 * Marks the start of a new search, after which entries from earlier searches are replaced first.
+	 */
+	public void newSearch()
+	{
+		generation = (generation + 1) & 0xFF;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(table, 0);
+		generation = 0;
+	}
+
+	/**
+	 * @return Number of entries the table holds
+	 */
+	public int capacity()
+	{
+		return table.length / ENTRY_LONGS;
+	}
+
+	public static int move(long data)
+	{
+		return (int) (data & ((1 << MOVE_BITS) - 1));
+	}
+
+	public static int score(long data)
+	{
+		return (int) ((data >>> SCORE_SHIFT) & 0xFFFF) - SCORE_OFFSET;
+	}
+
+	public static int depth(long data)
+	{
+		return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+	}
+
+	public static int bound(long data)
+	{
+		return (int) ((data >>> BOUND_SHIFT) & 0x3);
+	}
+
+	private static int generation(long data)
+	{
+		return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+	}
+
+	private static long pack(int move, int score, int depth, int bound, int generation)
+	{
+		return (move & ((1L << MOVE_BITS) - 1))
+				| (long) (score + SCORE_OFFSET) << SCORE_SHIFT
+				| (long) Math.clamp(depth, 0, 0xFF) << DEPTH_SHIFT
+				| (long) bound << BOUND_SHIFT
+				| (long) generation << GENERATION_SHIFT;
+	}
+
+	private int bucket(long key)
+	{
+		//The low bits of the key pick the bucket; all 64 are still compared on a probe
+		return ((int) key & bucketMask) * ENTRY_LONGS * BUCKET_ENTRIES;
+	}
+}
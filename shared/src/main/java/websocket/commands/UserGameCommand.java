@@ -62,6 +62,6 @@ public class UserGameCommand
 
     public enum CommandType
     {
-        CONNECT, MAKE_MOVE, LEAVE, RESIGN
+        CONNECT, MAKE_MOVE, LEAVE, RESIGN, HINT
     }
 }
@@ -0,0 +1,61 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CastlingRightsTests
+{
+	private static final int ALL = ChessBoard.WHITE_KINGSIDE | ChessBoard.WHITE_QUEENSIDE
+			| ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE;
+
+	@Test
+	public void startingBoardHasAllRights()
+	{
+		ChessBoard board = new ChessBoard();
+		board.resetBoard();
+
+		Assertions.assertEquals(ALL, board.getCastlingRights());
+	}
+
+	@Test
+	public void kingAndRookMovesLoseRights()
+	{
+		ChessBoard board = ChessBoard.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+		board.makeMove(move("h1h2"));
+		Assertions.assertEquals(ALL & ~ChessBoard.WHITE_KINGSIDE, board.getCastlingRights());
+
+		board.makeMove(move("e8d8"));
+		Assertions.assertEquals(ChessBoard.WHITE_QUEENSIDE, board.getCastlingRights());
+	}
+
+	@Test
+	public void capturingRookLosesRight()
+	{
+		ChessBoard board = ChessBoard.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+		int undo = board.makeMove(move("a1a8"));
+
+		Assertions.assertEquals(ChessBoard.WHITE_KINGSIDE | ChessBoard.BLACK_KINGSIDE, board.getCastlingRights());
+
+		board.unmakeMove(move("a1a8"), undo);
+		Assertions.assertEquals(ALL, board.getCastlingRights());
+	}
+
+	@Test
+	public void handPlacedPiecesRederiveRights()
+	{
+		ChessBoard board = ChessBoard.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w - - 0 1");
+		Assertions.assertEquals(0, board.getCastlingRights());
+
+		board.addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+		board.addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+		Assertions.assertEquals(ChessBoard.WHITE_KINGSIDE, board.getCastlingRights());
+	}
+
+	private static int move(String move)
+	{
+		int start = Bitboard.square(move.charAt(1) - '0', move.charAt(0) - 'a' + 1);
+		int end = Bitboard.square(move.charAt(3) - '0', move.charAt(2) - 'a' + 1);
+		return PackedMove.of(start, end, null);
+	}
+}
@@ -0,0 +1,104 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DrawDetectionTests
+{
+	@Test
+	public void threefoldRepetition() throws InvalidMoveException
+	{
+		ChessGame game = new ChessGame();
+
+		for(int i = 0; i < 2; i++)
+		{
+			game.makeMove(move(1, 7, 3, 6));
+			game.makeMove(move(8, 7, 6, 6));
+			game.makeMove(move(3, 6, 1, 7));
+			Assertions.assertFalse(game.isDraw());
+			game.makeMove(move(6, 6, 8, 7));
+		}
+
+		Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+		Assertions.assertTrue(game.isDraw());
+	}
+
+	@Test
+	public void repetitionsCountFromTheLastPawnMove() throws InvalidMoveException
+	{
+		ChessGame game = new ChessGame();
+
+		game.makeMove(move(1, 7, 3, 6));
+		game.makeMove(move(8, 7, 6, 6));
+		game.makeMove(move(3, 6, 1, 7));
+		game.makeMove(move(6, 6, 8, 7));
+		//Pawn moves start the count again
+		game.makeMove(move(2, 1, 3, 1));
+		game.makeMove(move(7, 1, 6, 1));
+		for(int i = 0; i < 2; i++)
+		{
+			game.makeMove(move(1, 7, 3, 6));
+			game.makeMove(move(8, 7, 6, 6));
+			game.makeMove(move(3, 6, 1, 7));
+			Assertions.assertFalse(game.isDraw());
+			game.makeMove(move(6, 6, 8, 7));
+		}
+
+		Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+	}
+
+	@Test
+	public void historySurvivesSerialization() throws InvalidMoveException
+	{
+		Gson gson = new Gson();
+		ChessGame game = new ChessGame();
+
+		for(int i = 0; i < 2; i++)
+		{
+			game.makeMove(move(1, 7, 3, 6));
+			game.makeMove(move(8, 7, 6, 6));
+			game.makeMove(move(3, 6, 1, 7));
+			game = gson.fromJson(gson.toJson(game), ChessGame.class);
+			game.makeMove(move(6, 6, 8, 7));
+		}
+
+		Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+	}
+
+	@Test
+	public void fiftyMoveRule() throws InvalidMoveException
+	{
+		ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+		Assertions.assertFalse(game.isDraw());
+
+		game.makeMove(move(1, 1, 1, 2));
+		Assertions.assertEquals(ChessGame.GameStatus.FIFTY_MOVE_RULE, game.getStatus());
+
+		//Checkmate on the hundredth move still wins
+		ChessGame mate = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 99 80");
+		mate.makeMove(move(1, 1, 8, 1));
+		Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, mate.getStatus());
+	}
+
+	@Test
+	public void insufficientMaterial()
+	{
+		Assertions.assertTrue(ChessGame.fromFen("8/8/3k4/8/8/3K4/8/8 w - - 0 1").isDraw());
+		Assertions.assertTrue(ChessGame.fromFen("8/8/3k4/8/8/3KB3/8/8 w - - 0 1").isDraw());
+		Assertions.assertTrue(ChessGame.fromFen("8/8/3k4/8/8/3K4/8/6n1 w - - 0 1").isDraw());
+		//Bishops on one color, however many
+		Assertions.assertTrue(ChessGame.fromFen("8/8/3k1b2/8/8/3KB3/8/8 w - - 0 1").isDraw());
+		Assertions.assertEquals(ChessGame.GameStatus.INSUFFICIENT_MATERIAL,
+				ChessGame.fromFen("8/8/3k1b2/8/8/3KB3/8/8 w - - 0 1").getStatus());
+
+		Assertions.assertFalse(ChessGame.fromFen("8/8/3kb3/8/8/3KB3/8/8 w - - 0 1").isDraw());
+		Assertions.assertFalse(ChessGame.fromFen("8/8/3k4/8/8/3KNN2/8/8 w - - 0 1").isDraw());
+		Assertions.assertFalse(ChessGame.fromFen("8/8/3k4/8/8/3KP3/8/8 w - - 0 1").isDraw());
+	}
+
+	private static ChessMove move(int startRow, int startColumn, int endRow, int endColumn)
+	{
+		return new ChessMove(ChessPosition.of(startRow, startColumn), ChessPosition.of(endRow, endColumn), null);
+	}
+}
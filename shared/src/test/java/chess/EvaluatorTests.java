@@ -0,0 +1,120 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EvaluatorTests
+{
+	private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+	@Test
+	public void startingPositionIsEven()
+	{
+		ChessBoard board = new ChessBoard();
+		board.resetBoard();
+
+		Assertions.assertEquals(0, new PieceSquareEvaluator().evaluate(board, ChessGame.TeamColor.WHITE));
+		Assertions.assertEquals(0, new MaterialEvaluator().evaluate(board, ChessGame.TeamColor.BLACK));
+	}
+
+	@Test
+	public void mirroredPositionsScoreTheSame()
+	{
+		ChessBoard board = ChessBoard.fromFen("4k3/pp6/8/3n4/8/2B5/5PPP/4K3 w - - 0 1");
+		ChessBoard mirrored = ChessBoard.fromFen("4k3/5ppp/2b5/8/3N4/8/PP6/4K3 w - - 0 1");
+		PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+
+		int score = evaluator.evaluate(board, ChessGame.TeamColor.WHITE);
+		Assertions.assertEquals(score, evaluator.evaluate(mirrored, ChessGame.TeamColor.BLACK));
+		Assertions.assertEquals(-score, evaluator.evaluate(mirrored, ChessGame.TeamColor.WHITE));
+	}
+
+	@Test
+	public void kingPrefersCentreInEndgame()
+	{
+		PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+
+		//With only kings & pawns left the endgame tables apply in full
+		int corner = evaluator.evaluate(ChessBoard.fromFen("4k3/4p3/8/8/8/8/4P3/K7 w - - 0 1"), ChessGame.TeamColor.WHITE);
+		int centre = evaluator.evaluate(ChessBoard.fromFen("4k3/4p3/8/8/3K4/8/4P3/8 w - - 0 1"), ChessGame.TeamColor.WHITE);
+		Assertions.assertTrue(centre > corner);
+
+		//With queens on the board the middlegame tables keep the king at home
+		int home = evaluator.evaluate(ChessBoard.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1"), ChessGame.TeamColor.WHITE);
+		int out = evaluator.evaluate(ChessBoard.fromFen("rnbqkbnr/pppppppp/8/8/3K4/8/PPPPPPPP/RNBQ1BNR w - - 0 1"), ChessGame.TeamColor.WHITE);
+		Assertions.assertTrue(home > out);
+	}
+
+	@Test
+	public void incrementalScoreMatchesRecount()
+	{
+		ChessBoard board = ChessBoard.fromFen(KIWIPETE);
+		PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+		evaluator.evaluate(board, ChessGame.TeamColor.WHITE);
+
+		//Every line of the first three plies, including castling, promotions & captures, then back again
+		walk(board, evaluator, ChessGame.TeamColor.WHITE, 3, new int[3][MoveGenerator.MAX_MOVES]);
+
+		Assertions.assertEquals(new PieceSquareEvaluator().evaluate(ChessBoard.fromFen(KIWIPETE), ChessGame.TeamColor.WHITE),
+				evaluator.evaluate(board, ChessGame.TeamColor.WHITE));
+	}
+
+	@Test
+	public void followsBoardReset()
+	{
+		ChessBoard board = ChessBoard.fromFen(KIWIPETE);
+		PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+		evaluator.evaluate(board, ChessGame.TeamColor.WHITE);
+
+		board.resetBoard();
+		Assertions.assertEquals(0, evaluator.evaluate(board, ChessGame.TeamColor.WHITE));
+	}
+
+	@Test
+	public void twoEvaluatorsOnOneBoard()
+	{
+		ChessBoard board = ChessBoard.fromFen(KIWIPETE);
+		ChessBoard other = new ChessBoard();
+		other.resetBoard();
+		PieceSquareEvaluator first = new PieceSquareEvaluator();
+		PieceSquareEvaluator second = new PieceSquareEvaluator();
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+		first.evaluate(board, ChessGame.TeamColor.WHITE);
+		second.evaluate(board, ChessGame.TeamColor.WHITE);
+		MoveGenerator.legalMoves(board, ChessGame.TeamColor.WHITE, moves);
+		board.makeMove(moves[0]);
+
+		//The first evaluator missed the move once the second took the board over
+		int expected = new PieceSquareEvaluator().evaluate(new ChessBoard(board), ChessGame.TeamColor.BLACK);
+		Assertions.assertEquals(expected, first.evaluate(board, ChessGame.TeamColor.BLACK));
+
+		//Moving on to another board doesn't detach whichever evaluator follows the old one now
+		second.evaluate(board, ChessGame.TeamColor.BLACK);
+		first.evaluate(other, ChessGame.TeamColor.WHITE);
+		Assertions.assertSame(second, board.getPieceListener());
+		Assertions.assertEquals(expected, second.evaluate(board, ChessGame.TeamColor.BLACK));
+	}
+
+	private static void walk(ChessBoard board, PieceSquareEvaluator evaluator, ChessGame.TeamColor toMove, int depth,
+							 int[][] buffers)
+	{
+		int[] moves = buffers[depth - 1];
+		int count = MoveGenerator.legalMoves(board, toMove, moves);
+		ChessGame.TeamColor next = toMove == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+		for(int i = 0; i < count; i++)
+		{
+			int undo = board.makeMove(moves[i]);
+
+			Assertions.assertEquals(new PieceSquareEvaluator().evaluate(new ChessBoard(board), next),
+					evaluator.evaluate(board, next), () -> board.toString());
+			if(depth > 1)
+			{
+				walk(board, evaluator, next, depth - 1, buffers);
+			}
+
+			board.unmakeMove(moves[i], undo);
+		}
+	}
+}
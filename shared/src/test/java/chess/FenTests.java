@@ -0,0 +1,108 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FenTests
+{
+	private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	@Test
+	public void startingPosition()
+	{
+		ChessGame game = ChessGame.fromFen(START);
+
+		Assertions.assertEquals(new ChessGame(), game);
+		Assertions.assertEquals(new ChessGame().getZobristKey(), game.getZobristKey());
+		Assertions.assertEquals(START, new ChessGame().toFen());
+	}
+
+	@Test
+	public void roundTrip()
+	{
+		for(Perft.PerftPosition position : Perft.STANDARD_POSITIONS)
+		{
+			Assertions.assertEquals(position.fen(), ChessGame.fromFen(position.fen()).toFen());
+		}
+
+		String enPassant = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+		Assertions.assertEquals(enPassant, ChessGame.fromFen(enPassant).toFen());
+		Assertions.assertEquals(Bitboard.square(6, 6), ChessBoard.fromFen(enPassant).getEnPassantSquare());
+	}
+
+	@Test
+	public void enPassantOnlyHashedWhenCapturable()
+	{
+		//No black pawn beside e4, so e3 can't be captured on and the position is the same as without it
+		long uncapturable = ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 b - e3 0 1").getZobristKey();
+		Assertions.assertEquals(ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 b - - 0 1").getZobristKey(), uncapturable);
+
+		long capturable = ChessGame.fromFen("4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 1").getZobristKey();
+		Assertions.assertNotEquals(ChessGame.fromFen("4k3/8/8/8/3pP3/8/8/4K3 b - - 0 1").getZobristKey(), capturable);
+	}
+
+	@Test
+	public void clocksFollowMoves() throws InvalidMoveException
+	{
+		ChessGame game = new ChessGame();
+
+		game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+		Assertions.assertEquals(1, game.getHalfmoveClock());
+		Assertions.assertEquals(1, game.getFullmoveNumber());
+
+		game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+		Assertions.assertEquals(0, game.getHalfmoveClock());
+		Assertions.assertEquals(2, game.getFullmoveNumber());
+		Assertions.assertEquals("rnbqkbnr/pppp1ppp/8/4p3/8/5N2/PPPPPPPP/RNBQKB1R w KQkq e6 0 2", game.toFen());
+	}
+
+	@Test
+	public void clocksAreOptional()
+	{
+		ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 b - -");
+
+		Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+		Assertions.assertEquals("8/8/8/4k3/8/8/8/4K3 b - - 0 1", game.toFen());
+	}
+
+	@Test
+	public void malformed()
+	{
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8 w - - 0 1"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("9/8/8/8/8/8/8/8 w - - 0 1"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 x - - 0 1"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 w K - 0 1"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 w - e9 0 1"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 w - -  0"));
+	}
+
+	@Test
+	public void invalidEnPassant()
+	{
+		//Valid: black to move after e2-e4
+		Assertions.assertDoesNotThrow(() -> ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 b - e3 0 1"));
+		//The square is behind the side to move's own pawn
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 w - e3 0 1"));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 b - e6 0 1"));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 b - e4 0 1"));
+		//No pawn in front of the square
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> ChessGame.fromFen("4k3/8/8/8/3P4/8/8/4K3 b - e3 0 1"));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> ChessGame.fromFen("4k3/8/8/8/4p3/8/8/4K3 b - e3 0 1"));
+		//The pawn couldn't have come from e2
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> ChessGame.fromFen("4k3/8/8/8/4P3/8/4N3/4K3 b - e3 0 1"));
+	}
+
+	@Test
+	public void invalidClocks()
+	{
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 w - - -1 1"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 w - - 0 0"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 w - - 0 -3"));
+	}
+}
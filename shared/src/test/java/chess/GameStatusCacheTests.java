@@ -0,0 +1,62 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class GameStatusCacheTests
+{
+	@Test
+	public void startingPositionMoves()
+	{
+		ChessGame game = new ChessGame();
+
+		Assertions.assertEquals(20, game.legalMoves().size());
+		Assertions.assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.getStatus());
+	}
+
+	@Test
+	public void statusFollowsMoves() throws InvalidMoveException
+	{
+		ChessGame game = new ChessGame();
+
+		game.makeMove(move(2, 6, 3, 6));
+		game.makeMove(move(7, 5, 5, 5));
+		game.makeMove(move(2, 7, 4, 7));
+		Assertions.assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.getStatus());
+
+		game.makeMove(move(8, 4, 4, 8));
+		Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+		Assertions.assertTrue(game.legalMoves().isEmpty());
+		Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+	}
+
+	@Test
+	public void checkAndStalemate()
+	{
+		ChessGame game = new ChessGame(TestUtilities.loadBoard("""
+				|k| | | | | | | |
+				| | | | | | | | |
+				| |Q| | | | | | |
+				| | | | | | | | |
+				| | | | | | | | |
+				| | | | | | | | |
+				| | | | | | | | |
+				| | | | | | | |K|
+				"""));
+		game.setTeamTurn(ChessGame.TeamColor.BLACK);
+		Assertions.assertEquals(ChessGame.GameStatus.STALEMATE, game.getStatus());
+		Assertions.assertTrue(game.isInStalemate(ChessGame.TeamColor.BLACK));
+
+		//Editing the board directly must not leave a stale status behind
+		game.getBoard().addPiece(ChessPosition.of(6, 2), null);
+		game.getBoard().addPiece(ChessPosition.of(6, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+		Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getStatus());
+		Assertions.assertEquals(1, game.legalMoves().size());
+	}
+
+	private static ChessMove move(int startRow, int startCol, int endRow, int endCol)
+	{
+		return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+	}
+}
@@ -0,0 +1,91 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class PerftTests
+{
+	@Test
+	public void startingPosition()
+	{
+		assertPerft(position("Starting position"), 4);
+	}
+
+	@Test
+	public void kiwipete()
+	{
+		assertPerft(position("Kiwipete"), 3);
+	}
+
+	@Test
+	public void position3()
+	{
+		assertPerft(position("Position 3"), 5);
+	}
+
+	@Test
+	public void position4()
+	{
+		assertPerft(position("Position 4"), 4);
+	}
+
+	@Test
+	public void position5()
+	{
+		assertPerft(position("Position 5"), 3);
+	}
+
+	@Test
+	public void position6()
+	{
+		assertPerft(position("Position 6"), 3);
+	}
+
+	@Test
+	public void bulkCountingMatchesFullCount()
+	{
+		Perft perft = new Perft(ChessGame.fromFen(position("Position 5").fen()));
+		Assertions.assertEquals(perft.perft(3, false), perft.perft(3, true));
+	}
+
+	@Test
+	public void divideSumsToPerft()
+	{
+		Perft.PerftPosition position = position("Starting position");
+		Map<String, Long> divide = new Perft(ChessGame.fromFen(position.fen())).divide(3);
+
+		Assertions.assertEquals(20, divide.size());
+		Assertions.assertEquals(600, divide.get("e2e4"));
+		Assertions.assertEquals(position.expected(3), divide.values().stream().mapToLong(Long::longValue).sum());
+	}
+
+	@Test
+	public void searchLeavesGameUnchanged()
+	{
+		ChessGame game = ChessGame.fromFen(position("Kiwipete").fen());
+		ChessBoard before = new ChessBoard(game.getBoard());
+		long key = game.getZobristKey();
+
+		new Perft(game).perft(3, false);
+
+		Assertions.assertEquals(before, game.getBoard());
+		Assertions.assertEquals(key, game.getZobristKey());
+	}
+
+	private static void assertPerft(Perft.PerftPosition position, int maxDepth)
+	{
+		Perft perft = new Perft(ChessGame.fromFen(position.fen()));
+
+		for(int depth = 1; depth <= maxDepth; depth++)
+		{
+			Assertions.assertEquals(position.expected(depth), perft.perft(depth), position.name() + " depth " + depth);
+		}
+	}
+
+	private static Perft.PerftPosition position(String name)
+	{
+		return Perft.STANDARD_POSITIONS.stream().filter(p -> p.name().equals(name)).findFirst().orElseThrow();
+	}
+}
@@ -0,0 +1,56 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PgnTests
+{
+	@Test
+	public void skipsEverythingButMoves() throws IOException
+	{
+		String pgn = """
+				[Event "Test"]
+				[White "A"]
+
+				1. e4 {best by test} e5 2. Nf3 (2. f4 exf4) Nc6 $1 3. Bb5 a6; the Morphy defence
+				4... Nf6 1-0
+
+				[Event "Second"]
+
+				1.d4 d5 1/2-1/2
+				1. c4 *""";
+		List<List<String>> games = new ArrayList<>();
+
+		Pgn.readGames(new StringReader(pgn), games::add);
+
+		Assertions.assertEquals(List.of(
+				List.of("e4", "e5", "Nf3", "Nc6", "Bb5", "a6", "Nf6"),
+				List.of("d4", "d5"),
+				List.of("c4")), games);
+	}
+
+	@Test
+	public void resolvesSan()
+	{
+		//Two knights can reach d2, and white may castle queenside or promote
+		ChessGame game = ChessGame.fromFen("4k3/1P6/8/8/8/1N3N2/8/R3K1NR w KQ - 0 1");
+
+		Assertions.assertEquals(move(3, 2, 2, 4, null), Pgn.parseSan(game, "Nbd2"));
+		Assertions.assertEquals(move(1, 7, 2, 5, null), Pgn.parseSan(game, "Ne2+"));
+		Assertions.assertEquals(move(1, 5, 1, 3, null), Pgn.parseSan(game, "O-O-O"));
+		Assertions.assertEquals(move(7, 2, 8, 2, ChessPiece.PieceType.KNIGHT), Pgn.parseSan(game, "b8=N!"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Pgn.parseSan(game, "Nd2"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Pgn.parseSan(game, "O-O"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Pgn.parseSan(game, "Qd4"));
+	}
+
+	private static ChessMove move(int startRow, int startCol, int endRow, int endCol, ChessPiece.PieceType promotion)
+	{
+		return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), promotion);
+	}
+}
@@ -0,0 +1,97 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TablebaseTests
+{
+	@TempDir
+	static Path directory;
+
+	private static Tablebase tablebase;
+
+	@BeforeAll
+	public static void generate() throws IOException
+	{
+		for(ChessPiece.PieceType type : new ChessPiece.PieceType[] {ChessPiece.PieceType.QUEEN,
+				ChessPiece.PieceType.ROOK, ChessPiece.PieceType.PAWN})
+		{
+			TablebaseGenerator.generate(directory, type, TablebaseGenerator.DEFAULT_BLOCK_SIZE);
+		}
+		//A single cached block, so most probes decompress one
+		tablebase = Tablebase.open(directory, 1);
+	}
+
+	@Test
+	public void findsMateInOne()
+	{
+		ChessGame white = ChessGame.fromFen("k7/8/1K6/8/8/8/7Q/8 w - - 0 1");
+		Assertions.assertEquals(new Tablebase.Result(Tablebase.Outcome.WIN, 1), tablebase.probe(white));
+
+		ChessGame mirrored = ChessGame.fromFen("8/7q/8/8/8/1k6/8/K7 b - - 0 1");
+		Assertions.assertEquals(new Tablebase.Result(Tablebase.Outcome.WIN, 1), tablebase.probe(mirrored));
+
+		ChessBoard after = new ChessBoard(white.getBoard());
+		after.makeMove(tablebase.bestMove(white));
+		ChessGame mated = new ChessGame(after);
+		mated.setTeamTurn(ChessGame.TeamColor.BLACK);
+		Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, mated.getStatus());
+	}
+
+	@Test
+	public void perfectPlayMatesInTheProbedPlies() throws InvalidMoveException
+	{
+		ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+		Tablebase.Result result = tablebase.probe(game);
+		Assertions.assertEquals(Tablebase.Outcome.WIN, result.outcome());
+
+		int plies = 0;
+		while(game.getStatus() != ChessGame.GameStatus.CHECKMATE)
+		{
+			game.makeMove(tablebase.bestMove(game));
+			plies++;
+		}
+		Assertions.assertEquals(result.plies(), plies);
+	}
+
+	@Test
+	public void pawnEndings()
+	{
+		Assertions.assertEquals(Tablebase.Outcome.WIN,
+				tablebase.probe(ChessGame.fromFen("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")).outcome());
+		//A rook pawn can't be forced through when the defending king holds the corner
+		Assertions.assertEquals(Tablebase.Outcome.DRAW,
+				tablebase.probe(ChessGame.fromFen("k7/8/8/8/8/8/P7/K7 w - - 0 1")).outcome());
+		//Black to move takes the undefended rook
+		Assertions.assertEquals(Tablebase.Outcome.DRAW,
+				tablebase.probe(ChessGame.fromFen("8/8/8/8/8/8/kR6/7K b - - 0 1")).outcome());
+	}
+
+	@Test
+	public void coverage()
+	{
+		Assertions.assertEquals(Tablebase.Outcome.DRAW, tablebase.probe(ChessGame.fromFen("8/8/3k4/8/8/3K4/8/8 w - - 0 1")).outcome());
+		Assertions.assertEquals(Tablebase.Outcome.DRAW, tablebase.probe(ChessGame.fromFen("8/8/3k4/8/8/3KN3/8/8 b - - 0 1")).outcome());
+		Assertions.assertNull(tablebase.probe(new ChessGame()));
+		Assertions.assertNull(tablebase.probe(ChessGame.fromFen("8/8/3k4/8/8/3KQ3/8/7r w - - 0 1")));
+		//An unmoved king and rook could still castle
+		Assertions.assertNull(tablebase.probe(ChessGame.fromFen("8/8/3k4/8/8/8/8/4K2R w K - 0 1")));
+	}
+
+	@Test
+	public void rejectsOtherFiles() throws IOException
+	{
+		Path other = Files.createDirectory(directory.resolve("other"));
+		Files.write(other.resolve("KQvK.ctb"), new byte[100]);
+
+		Assertions.assertThrows(IOException.class, () -> Tablebase.open(other, 8));
+		Path empty = Files.createDirectory(directory.resolve("empty"));
+		Assertions.assertNull(Tablebase.open(empty, 8).probe(ChessGame.fromFen("8/8/3k4/8/8/3KQ3/8/8 w - - 0 1")));
+	}
+}
@@ -0,0 +1,72 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+public class BatchAnalysisTests
+{
+	private static final String MATE_IN_ONE = "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1";
+
+	@Test
+	public void analyzesEveryPly()
+	{
+		List<BatchAnalysis.Game> games = List.of(BatchAnalysis.Game.fromSan(List.of("e4", "e5", "Nf3", "Nc6")),
+				BatchAnalysis.Game.fromFen(MATE_IN_ONE),
+				BatchAnalysis.Game.fromSan(List.of("d4", "d5")));
+		Map<String, BatchAnalysis.PositionAnalysis> results = new ConcurrentHashMap<>();
+
+		try(BatchAnalysis analysis = new BatchAnalysis(3, 1))
+		{
+			BatchAnalysis.Summary summary = analysis.analyze(games, SearchLimits.depth(3),
+					result -> results.put(result.game() + ":" + result.ply(), result)).join();
+
+			Assertions.assertEquals(Set.of("0:0", "0:1", "0:2", "0:3", "0:4", "1:0", "2:0", "2:1", "2:2"), results.keySet());
+			Assertions.assertEquals(9, summary.positions());
+			Assertions.assertEquals(results.values().stream().mapToLong(result -> result.result().nodes()).sum(), summary.nodes());
+			Assertions.assertEquals(new ChessGame().toFen(), results.get("0:0").fen());
+			Assertions.assertEquals(new ChessMove(ChessPosition.of(1, 4), ChessPosition.of(8, 4), null),
+					results.get("1:0").result().bestMove());
+		}
+	}
+
+	@Test
+	public void nodeLimit()
+	{
+		List<BatchAnalysis.Game> games = List.of(BatchAnalysis.Game.fromSan(List.of("e4", "c5", "Nf3", "d6", "d4")));
+
+		try(BatchAnalysis analysis = new BatchAnalysis(2, 1))
+		{
+			Set<Integer> depths = ConcurrentHashMap.newKeySet();
+			analysis.analyze(games, SearchLimits.nodes(20_000), result -> depths.add(result.result().depth())).join();
+
+			//Every position searched past the first iteration, so none was cut short by an earlier position's limit
+			Assertions.assertTrue(depths.stream().allMatch(depth -> depth > 1), depths.stream().map(String::valueOf)
+					.collect(Collectors.joining(", ")));
+		}
+	}
+
+	@Test
+	public void illegalGames()
+	{
+		Assertions.assertThrows(IllegalArgumentException.class, () -> BatchAnalysis.Game.fromSan(List.of("e4", "e4")));
+
+		BatchAnalysis.Game illegal = new BatchAnalysis.Game(MATE_IN_ONE,
+				List.of(new ChessMove(ChessPosition.of(1, 4), ChessPosition.of(1, 1), null),
+						new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null)));
+
+		try(BatchAnalysis analysis = new BatchAnalysis(1, 1))
+		{
+			Assertions.assertThrows(IllegalArgumentException.class,
+					() -> analysis.analyze(List.of(illegal), SearchLimits.depth(1), result -> {}).join());
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+public class OpeningBookTests
+{
+	private static final String GAMES = """
+			1. e4 e5 2. Nf3 Nc6 1-0
+			1. e4 c5 2. Nf3 d6 0-1
+			1. e4 e5 2. Bc4 Nf6 1/2-1/2
+			1. d4 d5 2. c4 e6 1-0
+			""";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void findsMostPlayedMove() throws IOException
+	{
+		OpeningBook book = build(4, 1);
+		ChessGame game = new ChessGame();
+
+		Assertions.assertEquals(move(2, 5, 4, 5), book.bestMove(game));
+		Assertions.assertEquals(List.of(new OpeningBook.Entry(move(2, 5, 4, 5).pack(), 3),
+				new OpeningBook.Entry(move(2, 4, 4, 4).pack(), 1)), book.entries(game.getZobristKey()));
+	}
+
+	@Test
+	public void followsTranspositionsAndLeavesBookAfterLastPly() throws IOException, InvalidMoveException
+	{
+		OpeningBook book = build(2, 1);
+		ChessGame game = new ChessGame();
+
+		game.makeMove(move(2, 5, 4, 5));
+		Assertions.assertEquals(move(7, 5, 5, 5), book.bestMove(game));
+
+		game.makeMove(move(7, 5, 5, 5));
+		Assertions.assertNull(book.bestMove(game));
+	}
+
+	@Test
+	public void minimumGamesDropsRareMoves() throws IOException
+	{
+		OpeningBook book = build(4, 2);
+
+		//1. e4 (3 games), 1... e5 (2) and 2. Nf3 after 1... e5 (1) is dropped
+		Assertions.assertEquals(2, book.size());
+	}
+
+	@Test
+	public void picksOnlyBookMoves() throws IOException
+	{
+		OpeningBook book = build(4, 1);
+		ChessGame game = new ChessGame();
+		Random random = new Random(1);
+		int kingsPawn = 0;
+
+		for(int i = 0; i < 400; i++)
+		{
+			ChessMove pick = book.pickMove(game, random);
+			Assertions.assertTrue(pick.equals(move(2, 5, 4, 5)) || pick.equals(move(2, 4, 4, 4)));
+			kingsPawn += pick.equals(move(2, 5, 4, 5)) ? 1 : 0;
+		}
+
+		//Weighted 3 to 1
+		Assertions.assertTrue(kingsPawn > 250 && kingsPawn < 350);
+	}
+
+	@Test
+	public void rejectsOtherFiles() throws IOException
+	{
+		Path file = directory.resolve("notes.txt");
+		Files.writeString(file, "not a book, but sixteen bytes..!");
+
+		Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+	}
+
+	private OpeningBook build(int maxPlies, int minGames) throws IOException
+	{
+		BookBuilder builder = new BookBuilder(maxPlies, minGames);
+		builder.addPgn(new StringReader(GAMES));
+
+		Path file = directory.resolve("book.bin");
+		builder.write(file);
+		return OpeningBook.open(file);
+	}
+
+	private static ChessMove move(int startRow, int startCol, int endRow, int endCol)
+	{
+		return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+	}
+}
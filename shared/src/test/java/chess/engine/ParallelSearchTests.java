@@ -0,0 +1,87 @@
+package chess.engine;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+public class ParallelSearchTests
+{
+	private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+	@Test
+	public void findsMateOnSeveralThreads()
+	{
+		try(ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 3))
+		{
+			ChessGame game = ChessGame.fromFen("r5k1/5ppp/8/8/8/8/3R1PPP/3R2K1 w - - 0 1");
+			ParallelSearchResult result = search.search(game, SearchLimits.depth(5));
+
+			Assertions.assertEquals(Search.MATE - 3, result.result().score());
+			Assertions.assertEquals(3, result.threads().size());
+		}
+	}
+
+	@Test
+	public void reportsNodesPerThread()
+	{
+		try(ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 2))
+		{
+			ParallelSearchResult result = search.search(ChessGame.fromFen(KIWIPETE), SearchLimits.depth(4));
+			long threadNodes = result.threads().stream().mapToLong(SearchResult::nodes).sum();
+
+			Assertions.assertEquals(threadNodes, result.result().nodes());
+			Assertions.assertEquals(result.threads().getFirst().move(), result.result().move());
+			Assertions.assertTrue(result.nodesPerSecond() > 0);
+		}
+	}
+
+	@Test
+	public void helpersStopWithMainThread()
+	{
+		try(ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 4))
+		{
+			long start = System.currentTimeMillis();
+			ParallelSearchResult result = search.search(ChessGame.fromFen(KIWIPETE), SearchLimits.millis(200));
+
+			Assertions.assertNotNull(result.result().bestMove());
+			Assertions.assertTrue(System.currentTimeMillis() - start < 1000);
+
+			//The threads can be reused
+			Assertions.assertEquals(4, search.search(ChessGame.fromFen(KIWIPETE), SearchLimits.depth(2)).threads().size());
+		}
+	}
+
+	@Test
+	public void stopBeforeSearchIsKept()
+	{
+		try(ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 3))
+		{
+			search.stop();
+			ParallelSearchResult stopped = search.search(ChessGame.fromFen(KIWIPETE), SearchLimits.depth(4));
+			Assertions.assertEquals(0, stopped.result().depth());
+			Assertions.assertEquals(0, search.search(ChessGame.fromFen(KIWIPETE), SearchLimits.depth(4)).result().depth());
+
+			search.reset();
+			Assertions.assertEquals(4, search.search(ChessGame.fromFen(KIWIPETE), SearchLimits.depth(4)).result().depth());
+		}
+	}
+
+	@Test
+	public void threadsFromConfig()
+	{
+		Properties props = new Properties();
+		props.setProperty("engine.threads", "2");
+		EngineConfig config = EngineConfig.fromProperties(props);
+
+		Assertions.assertEquals(EngineConfig.DEFAULT.hashMegabytes(), config.hashMegabytes());
+		try(ParallelSearch search = new ParallelSearch(config))
+		{
+			Assertions.assertEquals(2, search.threads());
+		}
+
+		props.setProperty("engine.threads", "0");
+		Assertions.assertThrows(IllegalArgumentException.class, () -> EngineConfig.fromProperties(props));
+	}
+}
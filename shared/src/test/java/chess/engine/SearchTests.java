@@ -0,0 +1,101 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SearchTests
+{
+	@Test
+	public void findsMateInOne()
+	{
+		//Back rank mate: Ra1-a8
+		ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+		SearchResult result = new Search().search(game, SearchLimits.depth(4));
+
+		Assertions.assertEquals(move(1, 1, 8, 1), result.bestMove());
+		Assertions.assertEquals(Search.MATE - 1, result.score());
+		Assertions.assertTrue(Search.isMate(result.score()));
+	}
+
+	@Test
+	public void findsMateInTwo()
+	{
+		//1. Rd8+ Rxd8 2. Rxd8#
+		ChessGame game = ChessGame.fromFen("r5k1/5ppp/8/8/8/8/3R1PPP/3R2K1 w - - 0 1");
+		SearchResult result = new Search().search(game, SearchLimits.depth(5));
+
+		Assertions.assertEquals(Search.MATE - 3, result.score());
+	}
+
+	@Test
+	public void winsHangingQueen()
+	{
+		ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+		SearchResult result = new Search().search(game, SearchLimits.depth(3));
+
+		Assertions.assertEquals(move(2, 4, 5, 4), result.bestMove());
+	}
+
+	@Test
+	public void noMovesWhenMated()
+	{
+		ChessGame game = ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+		SearchResult result = new Search().search(game, SearchLimits.depth(3));
+
+		Assertions.assertNull(result.bestMove());
+		Assertions.assertEquals(-Search.MATE, result.score());
+	}
+
+	@Test
+	public void respectsTimeBudget()
+	{
+		ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		long start = System.currentTimeMillis();
+		SearchResult result = new Search().search(game, SearchLimits.millis(200));
+
+		Assertions.assertNotNull(result.bestMove());
+		Assertions.assertTrue(System.currentTimeMillis() - start < 1000);
+		Assertions.assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+	}
+
+	@Test
+	public void respectsNodeLimit()
+	{
+		SearchResult result = new Search().search(new ChessGame(), new SearchLimits(SearchLimits.MAX_DEPTH, Long.MAX_VALUE, 20_000));
+
+		Assertions.assertNotNull(result.bestMove());
+		Assertions.assertTrue(result.nodes() < 40_000);
+	}
+
+	@Test
+	public void reusableAfterLimit()
+	{
+		Search search = new Search();
+		search.search(new ChessGame(), SearchLimits.nodes(20_000));
+
+		//Running out of nodes only ends that search; the next one runs to its own limits
+		SearchResult result = search.search(new ChessGame(), SearchLimits.depth(4));
+		Assertions.assertEquals(4, result.depth());
+		Assertions.assertTrue(result.nodes() > 1);
+	}
+
+	@Test
+	public void stopOutlastsSearch()
+	{
+		Search search = new Search();
+		search.stop();
+
+		Assertions.assertEquals(0, search.search(new ChessGame(), SearchLimits.depth(4)).depth());
+		Assertions.assertEquals(0, search.search(new ChessGame(), SearchLimits.depth(4)).depth());
+		search.reset();
+		Assertions.assertEquals(4, search.search(new ChessGame(), SearchLimits.depth(4)).depth());
+	}
+
+	private static ChessMove move(int startRow, int startCol, int endRow, int endCol)
+	{
+		return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+	}
+}
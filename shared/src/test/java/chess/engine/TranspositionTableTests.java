@@ -0,0 +1,132 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TranspositionTableTests
+{
+	private static final int MOVE = PackedMove.of(12, 28, null, 0);
+
+	@Test
+	public void storeAndProbe()
+	{
+		TranspositionTable table = new TranspositionTable(1);
+		long key = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1").getZobristKey();
+
+		Assertions.assertEquals(TranspositionTable.MISS, table.probe(key));
+
+		table.store(key, MOVE, -Search.MATE + 3, 7, TranspositionTable.UPPER);
+		long entry = table.probe(key);
+
+		Assertions.assertEquals(MOVE, TranspositionTable.move(entry));
+		Assertions.assertEquals(-Search.MATE + 3, TranspositionTable.score(entry));
+		Assertions.assertEquals(7, TranspositionTable.depth(entry));
+		Assertions.assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(entry));
+	}
+
+	@Test
+	public void otherKeyInSameBucketMisses()
+	{
+		TranspositionTable table = new TranspositionTable(1);
+		long key = 0x1234_5678_9ABC_DEF0L;
+
+		table.store(key, MOVE, 50, 3, TranspositionTable.EXACT);
+
+		//Same low bits, so the same bucket, but a different position
+		Assertions.assertEquals(TranspositionTable.MISS, table.probe(key ^ (1L << 63)));
+	}
+
+	@Test
+	public void deeperEntryIsKept()
+	{
+		TranspositionTable table = new TranspositionTable(1);
+		long deep = 0x10;
+		long shallow = deep | (1L << 40);
+		long newer = deep | (1L << 41);
+
+		table.store(deep, MOVE, 10, 9, TranspositionTable.EXACT);
+		table.store(shallow, MOVE, 20, 2, TranspositionTable.EXACT);
+		table.store(newer, MOVE, 30, 1, TranspositionTable.EXACT);
+
+		//The shallow entries share the always-replace slot; the deep one survives them both
+		Assertions.assertEquals(9, TranspositionTable.depth(table.probe(deep)));
+		Assertions.assertEquals(TranspositionTable.MISS, table.probe(shallow));
+		Assertions.assertEquals(30, TranspositionTable.score(table.probe(newer)));
+
+		//A later search may replace it
+		table.newSearch();
+		table.store(shallow, MOVE, 20, 2, TranspositionTable.EXACT);
+		Assertions.assertEquals(TranspositionTable.MISS, table.probe(deep));
+		Assertions.assertEquals(2, TranspositionTable.depth(table.probe(shallow)));
+	}
+
+	@Test
+	public void sizeIsBounded()
+	{
+		//16 bytes an entry
+		Assertions.assertEquals(1 << 16, new TranspositionTable(1).capacity());
+		Assertions.assertEquals(1 << 16, new TranspositionTable(new EngineConfig(1, 1, 1, 0, 1, null, null, 64)).capacity());
+		Assertions.assertEquals(1 << 17, new TranspositionTable(3).capacity());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+	}
+
+	@Test
+	public void concurrentWritesNeverMixEntries() throws InterruptedException
+	{
+		TranspositionTable table = new TranspositionTable(1);
+		AtomicBoolean mixed = new AtomicBoolean();
+		List<Thread> threads = new ArrayList<>();
+
+		//Every thread writes entries whose score is derived from the key, into a handful of contended buckets
+		for(int t = 0; t < 4; t++)
+		{
+			int seed = t;
+			threads.add(new Thread(() -> {
+				for(int i = 0; i < 200_000; i++)
+				{
+					long key = ((long) (i * 31 + seed) << 32) | (i & 7);
+					table.store(key, MOVE, scoreFor(key), i & 63, TranspositionTable.EXACT);
+
+					long probed = table.probe(key ^ (1L << 32));
+					if(probed != TranspositionTable.MISS && TranspositionTable.score(probed) != scoreFor(key ^ (1L << 32)))
+					{
+						mixed.set(true);
+					}
+				}
+			}));
+		}
+
+		for(Thread thread : threads)
+		{
+			thread.start();
+		}
+		for(Thread thread : threads)
+		{
+			thread.join();
+		}
+
+		Assertions.assertFalse(mixed.get());
+	}
+
+	@Test
+	public void searchFindsMateWithSharedTable()
+	{
+		TranspositionTable table = new TranspositionTable(1);
+		ChessGame game = ChessGame.fromFen("r5k1/5ppp/8/8/8/8/3R1PPP/3R2K1 w - - 0 1");
+
+		//The second search starts with the first one's entries, including the ply adjusted mate scores
+		Assertions.assertEquals(Search.MATE - 3, new Search(table).search(game, SearchLimits.depth(5)).score());
+		Assertions.assertEquals(Search.MATE - 3, new Search(table).search(game, SearchLimits.depth(5)).score());
+	}
+
+	private static int scoreFor(long key)
+	{
+		return (int) (key >>> 32) % 10_000;
+	}
+}